@@ -1,13 +1,21 @@
 package projects;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 import java.util.Scanner;
 
+import projects.dao.CategoryDictionary;
+import projects.dao.DbConnection;
+import projects.dao.SchemaMigrator;
+import projects.entity.Page;
 import projects.entity.Project;
+import projects.entity.ProjectSummary;
 import projects.exception.DbException;
+import projects.service.ProjectImporter;
 import projects.service.ProjectService;
+import projects.service.ReportService;
 
 public class ProjectsApp {
 	
@@ -24,15 +32,26 @@ public class ProjectsApp {
 				"2) List projects",
 				"3) Select a project",
 				"4) Update project details",
-				"5) Delete a project"
+				"5) Delete a project",
+				"6) Import projects from a file",
+				"7) Export projects to a file",
+				"8) Search projects",
+				"9) Show cost and effort reports",
+				"10) List projects in a category",
+				"11) Log time on a project"
 			);
 			// @formatter:on
 			
+	//number of projects printed before asking whether to show more
+	private static final int PAGE_SIZE = 20;
+	
 	private Scanner scanner = new Scanner(System.in);
 			
 	//instantiates an object from the service layer class
 	private ProjectService projectService = new ProjectService();
 	
+	private ReportService reportService = new ReportService();
+	
 	private Project curProject;
 
 	/**
@@ -40,6 +59,14 @@ public class ProjectsApp {
 	 */	
 	public static void main(String[] args) {
 		
+		//Applies any schema migrations the database is missing, see SchemaMigrator.
+		if(DbConnection.getConfig().getBoolean("db.migrate.onStartup", true)) {
+			new SchemaMigrator().migrate();
+		}
+		
+		//Reads the categories into memory, so project loads need not join them.
+		CategoryDictionary.getInstance().refresh();
+		
 		//Instantiates a new object and calls the method to process the menu.
 		
 		new ProjectsApp().processUserSelections();
@@ -70,13 +97,7 @@ public class ProjectsApp {
 					break;
 					
 				case 2:
-					List<Project> projects = projectService.fetchAllProjects();
-					
-					System.out.println("\nProjects:");
-					
-					projects.forEach(project -> System.out.println("   " 
-							+ project.getProjectId() + ": " 
-							+ project.getProjectName()));
+					listProjects();
 					break;
 					
 				case 3:
@@ -91,6 +112,30 @@ public class ProjectsApp {
 					deleteProject();
 					break;
 					
+				case 6:
+					importProjects();
+					break;
+					
+				case 7:
+					exportProjects();
+					break;
+					
+				case 8:
+					searchProjects();
+					break;
+					
+				case 9:
+					showReports();
+					break;
+					
+				case 10:
+					listProjectsInCategory();
+					break;
+					
+				case 11:
+					logTime();
+					break;
+					
 				default:
 					System.out.println("\n" + selection + 
 							" is not a valid selection. Try again.");
@@ -105,6 +150,41 @@ public class ProjectsApp {
 		}
 	}
 
+	/**
+	 * Loads projects with their materials, steps and categories from a CSV
+	 * file, printing the progress after each batch.
+	 */
+	private void importProjects() {
+		String fileName = getStringInput("Enter the path of the CSV file to import");
+		
+		if(Objects.isNull(fileName)) {
+			return;
+		}
+		
+		ProjectImporter.Progress total = projectService.importProjects(Path.of(fileName), 
+				progress -> System.out.println("  " + progress));
+		
+		System.out.println("Imported " + total);
+	}
+
+	/**
+	 * Writes every project with its materials, steps and categories to a
+	 * CSV file that option 6 can import again.
+	 */
+	private void exportProjects() {
+		String fileName = getStringInput("Enter the path of the CSV file to write");
+		
+		if(Objects.isNull(fileName)) {
+			return;
+		}
+		
+		long start = System.nanoTime();
+		long exported = projectService.exportProjects(Path.of(fileName));
+		
+		System.out.printf("Exported %,d projects in %.1f s%n", exported, 
+				(System.nanoTime() - start) / 1e9);
+	}
+
 	private void deleteProject() {
 		listProjects();
 		
@@ -126,8 +206,6 @@ public class ProjectsApp {
 			return;
 		}
 		
-		Project project = new Project();
-		
 		String projectName = getStringInput("Enter the project name [It was: " 
 				+ curProject.getProjectName() + "] Press Enter to keep it the same.");
 		
@@ -143,44 +221,51 @@ public class ProjectsApp {
 		String notes = getStringInput("Enter the project notes [It was: "
 				+ curProject.getNotes() + "] Press Enter to keep it the same.");
 		
-		Integer projectId = curProject.getProjectId();
-		
-	
-		//If user input is not null, the value is added to Project;
-		//else, if null, add the value from curProject. 
-		
-		project.setProjectName(Objects.isNull(projectName) 
-				? curProject.getProjectName() : projectName);
-		
-//		if(Objects.nonNull(projectName)) {
-//		project.setProjectName(projectName);
-//	} if(Objects.isNull(projectName)) {
-//		project.setProjectName(curProject.getProjectName());
-//	}
-		
-		//Adding user input into project, 
-		//checks if null and passes in values from curProject if it is.
+		//Only the values the user typed are set on curProject. A setter that
+		//gets the value the field already has does not count as a change, so
+		//only what really changed is sent to the database.
 		
-		project.setEstimatedHours(Objects.isNull(projectEstimatedHours) 
-				? curProject.getEstimatedHours() : projectEstimatedHours);
-		project.setActualHours(Objects.isNull(projectActualHours) 
-				? curProject.getActualHours() : projectActualHours);
-		project.setDifficulty(Objects.isNull(projectDifficulty)
-				? curProject.getDifficulty() : projectDifficulty);
-		project.setNotes(Objects.isNull(notes) ? curProject.getNotes() : notes);
-		project.setProjectId(projectId);
-		
-//		????? What happen if I do not check for null? ?????
-//		project.setEstimatedHours(projectEstimatedHours);
-//		project.setActualHours(projectActualHours);
-//		project.setDifficulty(projectDifficulty);
-//		project.setNotes(notes);
-//		project.setProjectId(projectId);
-		
-		projectService.modifyProjectDetails(project);
+		if(Objects.nonNull(projectName)) {
+			curProject.setProjectName(projectName);
+		}
+		if(Objects.nonNull(projectEstimatedHours)) {
+			curProject.setEstimatedHours(projectEstimatedHours);
+		}
+		if(Objects.nonNull(projectActualHours)) {
+			curProject.setActualHours(projectActualHours);
+		}
+		if(Objects.nonNull(projectDifficulty)) {
+			curProject.setDifficulty(projectDifficulty);
+		}
+		if(Objects.nonNull(notes)) {
+			curProject.setNotes(notes);
+		}
 		
-		curProject = projectService.fetchProjectbyId(curProject.getProjectId());
+		if(!curProject.isChanged()) {
+			System.out.println("Nothing was changed.");
+			return;
+		}
 		
+		//the service returns curProject itself, saved, so there is nothing to refetch
+		try {
+			curProject = projectService.updateProjectDetails(curProject);
+		}
+		catch(RuntimeException e) {
+			//the unsaved values are still on curProject, marked as changed, so
+			//read it back as stored (or deselect it if it is gone)
+			Integer projectId = curProject.getProjectId();
+			curProject = null;
+
+			try {
+				curProject = projectService.fetchProjectbyId(projectId);
+			}
+			catch(RuntimeException reloadFailure) {
+				e.addSuppressed(reloadFailure);
+			}
+
+			throw e;
+		}
+
 	}
 
 	private void selectProject() {
@@ -193,13 +278,138 @@ public class ProjectsApp {
 				
 	}
 
+	/**
+	 * Prints the material cost of each project and how the hour estimates
+	 * held up, by difficulty and by category.
+	 */
+	private void showReports() {
+		System.out.println("\nMaterial cost per project:");
+		reportService.fetchCostPerProject().forEach(cost -> System.out.println("   " + cost));
+		
+		System.out.println("\nEstimated vs actual hours by difficulty:");
+		reportService.fetchEffortByDifficulty().forEach(row -> System.out.println("   " + row));
+		
+		System.out.println("\nEstimated vs actual hours by category:");
+		reportService.fetchEffortByCategory().forEach(row -> System.out.println("   " + row));
+	}
+
+	private void searchProjects() {
+		String words = getStringInput("Enter the words to search the notes and steps for");
+		
+		if(Objects.isNull(words)) {
+			return;
+		}
+		
+		int offset = 0;
+		Page<ProjectSummary> page = projectService.searchProjects(words, offset, PAGE_SIZE);
+		
+		if(page.isEmpty()) {
+			System.out.println("\nNo projects match.");
+			return;
+		}
+		
+		System.out.println("\nBest matches first:");
+		
+		boolean more = true;
+		
+		//same paging as listProjects, but by position since results are ranked
+		while(more) {
+			page.getItems().forEach(project -> System.out.println("   " 
+					+ project.getProjectId()+ ": " + project.getProjectName()));
+			
+			more = page.hasMore() && "m".equalsIgnoreCase(
+					getStringInput("Enter m for more matches, or press Enter to continue"));
+			
+			if(more) {
+				offset += PAGE_SIZE;
+				page = projectService.searchProjects(words, offset, PAGE_SIZE);
+			}
+		}
+	}
+
+	/**
+	 * Shows the categories, then the projects in the one the user picks, a
+	 * page at a time.
+	 */
+	private void listProjectsInCategory() {
+		System.out.println("\nCategories:");
+		projectService.fetchAllCategories().forEach(category -> System.out.println("   " 
+				+ category.getCategoryId() + ": " + category.getCategoryName()));
+		
+		Integer categoryId = getIntInput("Enter a category ID");
+		
+		if(Objects.isNull(categoryId)) {
+			return;
+		}
+		
+		Page<ProjectSummary> page = projectService.fetchProjectsInCategory(categoryId, PAGE_SIZE);
+		
+		if(page.isEmpty()) {
+			System.out.println("\nNo projects are in that category.");
+			return;
+		}
+		
+		System.out.println("\nProjects:");
+		
+		boolean more = true;
+		
+		while(more) {
+			page.getItems().forEach(project -> System.out.println("   " 
+					+ project.getProjectId()+ ": " + project.getProjectName()));
+			
+			more = page.hasMore() && "m".equalsIgnoreCase(
+					getStringInput("Enter m for more projects, or press Enter to continue"));
+			
+			if(more) {
+				page = projectService.fetchProjectsInCategory(categoryId, page.getLast(), PAGE_SIZE);
+			}
+		}
+	}
+
+	/**
+	 * Adds hours worked to a project. They reach actual_hours with the next
+	 * batched write, see ProjectService.recordTime.
+	 */
+	private void logTime() {
+		Integer projectId = getIntInput("Enter the ID of the project you worked on");
+		BigDecimal hours = getDecimalInput("Enter the hours worked");
+		
+		if(Objects.isNull(projectId) || Objects.isNull(hours)) {
+			System.out.println("Nothing was logged.");
+			return;
+		}
+		
+		//throws if there is no such project; usually answered from the cache
+		projectService.fetchProjectbyId(projectId);
+		
+		projectService.recordTime(projectId, hours);
+		
+		System.out.println("Logged " + hours + " hours. Waiting to be saved: " 
+				+ projectService.getUnflushedHours(projectId) + " hours.");
+	}
+
+	/**
+	 * Prints the projects one page at a time. After each full page the user
+	 * can ask for the next one or carry on with what is shown.
+	 */
 	private void listProjects() {
-		List<Project> projects = projectService.fetchAllProjects();
+		Page<ProjectSummary> page = projectService.fetchProjectSummaryPage(PAGE_SIZE);
 		
 		System.out.println("\nProjects:");
 		
-		projects.forEach(project -> System.out.println("   " 
-				+ project.getProjectId()+ ": " + project.getProjectName()));
+		boolean more = true;
+		
+		while(more) {
+			page.getItems().forEach(project -> System.out.println("   " 
+					+ project.getProjectId()+ ": " + project.getProjectName()));
+			
+			more = page.hasMore() && "m".equalsIgnoreCase(
+					getStringInput("Enter m for more projects, or press Enter to continue"));
+			
+			if(more) {
+				page = projectService.fetchProjectSummaryPage(page.getLast(), PAGE_SIZE);
+			}
+		}
 		
 	}
 
@@ -254,6 +464,15 @@ public class ProjectsApp {
 	}
 
 	private boolean exitMenu() {
+		//writes the logged time now rather than leaving it to the shutdown hook;
+		//if that fails the hook tries again, so the menu still exits
+		try {
+			projectService.flushTimeEntries();
+		}
+		catch(RuntimeException e) {
+			System.err.println("Could not save the logged time: " + e);
+		}
+
 		System.out.println("Exiting the menu.");
 		return true;
 	}
@@ -0,0 +1,20 @@
+package projects.dao;
+
+public enum AggregateLoadMode {
+
+	/**
+	 * How ProjectDao.fetchProjectId loads a project with its materials,
+	 * steps and categories.
+	 */
+
+	//one query for the project, then one for each child table
+	SEPARATE_QUERIES,
+
+	//all four queries sent together in a single multi-statement request
+	SINGLE_ROUND_TRIP,
+
+	//the child queries run at the same time on separate pooled connections;
+	//unlike the other two modes they do not share one snapshot
+	PARALLEL
+
+}
@@ -0,0 +1,234 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import projects.entity.Category;
+import projects.exception.DbException;
+
+public class CategoryDictionary {
+
+	/**
+	 * Every category, held in memory, so loading a project only has to read
+	 * the category IDs from project_category and the names are looked up
+	 * here instead of joined in from the category table on every load.
+	 *
+	 * The categories sit in an immutable snapshot behind a volatile field.
+	 * Readers take the current snapshot without locking; a change builds a
+	 * new snapshot from a copy of the old one and swaps it in. That suits a
+	 * table that is read on every project load and written almost never.
+	 *
+	 * There is one dictionary per process, loaded the first time it is used.
+	 * ProjectDao adds the categories it inserts once they commit, and an ID
+	 * that is not in the snapshot, say one added by another process, makes
+	 * the dictionary reload itself before giving up on it. That reload happens
+	 * at most once per db.categories.missReloadMs, so looking up an ID that
+	 * does not exist over and over does not reread the table each time.
+	 *
+	 * A reload reads through the connection the caller passes in, if it has
+	 * one, so a DAO method that already holds a connection does not borrow a
+	 * second one from the pool; without one it borrows its own.
+	 *
+	 * Inside a read-write transaction the table may hold rows that are not
+	 * committed yet, and may never be. A miss there reads the table through
+	 * the transaction's connection but does not keep what it read.
+	 *
+	 * Category names are not unique in the table. If several categories share
+	 * a name, findId returns the lowest of their IDs.
+	 */
+
+	private static final CategoryDictionary INSTANCE = new CategoryDictionary();
+
+	private final long missReloadNanos = TimeUnit.MILLISECONDS.toNanos(
+			DbConnection.getConfig().getLong("db.categories.missReloadMs", 1000));
+
+	private volatile Snapshot snapshot;
+
+	//System.nanoTime() of the last reload
+	private long reloadedAt;
+
+	private CategoryDictionary() {
+	}
+
+	public static CategoryDictionary getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns a new Category for the ID, or null if there is no such
+	 * category. Each call returns its own copy, so callers may change it.
+	 */
+	public Category get(Integer categoryId) {
+		return get(categoryId, null);
+	}
+
+	/**
+	 * Same as get(Integer), reading the table through conn if the ID is
+	 * missing. The connection is left open.
+	 */
+	public Category get(Integer categoryId, Connection conn) {
+		String name = snapshot(conn).names.get(categoryId);
+
+		if(Objects.isNull(name)) {
+			name = reloadOnMiss(conn).names.get(categoryId);
+		}
+
+		return Objects.isNull(name) ? null : category(categoryId, name);
+	}
+
+	/**
+	 * Returns the ID of the category with this name, or null if there is none.
+	 * Of several categories with the name, the lowest ID is returned.
+	 */
+	public Integer findId(String categoryName) {
+		Integer id = snapshot(null).ids.get(categoryName);
+
+		return Objects.nonNull(id) ? id : reloadOnMiss(null).ids.get(categoryName);
+	}
+
+	/**
+	 * Every category in name order.
+	 */
+	public List<Category> getAll() {
+		Snapshot current = snapshot(null);
+		List<Category> categories = new ArrayList<>(current.idsByName.size());
+
+		for(Integer id : current.idsByName) {
+			categories.add(category(id, current.names.get(id)));
+		}
+
+		return categories;
+	}
+
+	/**
+	 * Adds or renames categories that were saved to the database.
+	 */
+	public synchronized void putAll(Collection<Category> categories) {
+		Map<Integer, String> names = new HashMap<>(snapshot(null).names);
+
+		for(Category category : categories) {
+			names.put(category.getCategoryId(), category.getCategoryName());
+		}
+
+		snapshot = new Snapshot(names);
+	}
+
+	/**
+	 * Reads the category table again, for changes made outside this process.
+	 * Inside a read-write transaction the read waits until it commits.
+	 */
+	public void refresh() {
+		DbConnection.afterCommit(() -> reload(null));
+	}
+
+	private Snapshot reloadOnMiss(Connection conn) {
+		if(DbConnection.isInTransaction()) {
+			return new Snapshot(read(conn));
+		}
+
+		synchronized(this) {
+			//a miss this soon after the last reload is taken as a real miss
+			if(Objects.nonNull(snapshot) && System.nanoTime() - reloadedAt < missReloadNanos) {
+				return snapshot;
+			}
+
+			return reload(conn);
+		}
+	}
+
+	private synchronized Snapshot reload(Connection conn) {
+		snapshot = new Snapshot(read(conn));
+		reloadedAt = System.nanoTime();
+
+		return snapshot;
+	}
+
+	/**
+	 * Reads the category table through conn, or through a connection of its
+	 * own if conn is null.
+	 */
+	private static Map<Integer, String> read(Connection conn) {
+		if(Objects.nonNull(conn)) {
+			try {
+				return readWith(conn);
+			}
+			catch(SQLException e) {
+				throw new DbException(e);
+			}
+		}
+
+		try(Connection own = DbConnection.getConnection()){
+			return readWith(own);
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	private static Map<Integer, String> readWith(Connection conn) throws SQLException {
+		Map<Integer, String> names = new HashMap<>();
+
+		try(PreparedStatement stmt = conn.prepareStatement(ProjectDao.FETCH_ALL_CATEGORIES_SQL)){
+			try(ResultSet rs = stmt.executeQuery()){
+				while(rs.next()) {
+					names.put(rs.getInt("category_id"), rs.getString("category_name"));
+				}
+			}
+		}
+
+		return names;
+	}
+
+	private Snapshot snapshot(Connection conn) {
+		Snapshot current = snapshot;
+
+		if(Objects.nonNull(current)) {
+			return current;
+		}
+
+		return DbConnection.isInTransaction() ? new Snapshot(read(conn)) : reload(conn);
+	}
+
+	private static Category category(Integer categoryId, String categoryName) {
+		Category category = new Category();
+
+		category.setCategoryId(categoryId);
+		category.setCategoryName(categoryName);
+
+		return category;
+	}
+
+	/**
+	 * One immutable version of the category table.
+	 */
+	private static class Snapshot {
+		private final Map<Integer, String> names;
+		private final Map<String, Integer> ids;
+		private final List<Integer> idsByName;
+
+		private Snapshot(Map<Integer, String> names) {
+			//a name shared by several categories maps to the lowest ID, so
+			//findId does not depend on the map's iteration order
+			Map<String, Integer> ids = new HashMap<>();
+			names.forEach((id, name) -> ids.merge(name, id, Math::min));
+
+			List<Integer> idsByName = new ArrayList<>(names.keySet());
+			idsByName.sort((a, b) -> names.get(a).compareTo(names.get(b)));
+
+			this.names = Collections.unmodifiableMap(names);
+			this.ids = Collections.unmodifiableMap(ids);
+			this.idsByName = Collections.unmodifiableList(idsByName);
+		}
+	}
+
+}
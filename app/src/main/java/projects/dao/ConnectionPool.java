@@ -0,0 +1,457 @@
+package projects.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import projects.exception.DbException;
+import projects.metrics.LatencyHistogram;
+import projects.metrics.Metrics;
+
+public class ConnectionPool implements AutoCloseable, ConnectionPoolMBean {
+
+	/**
+	 * A small bounded pool of MySQL connections. Borrowers get a proxy whose
+	 * close() hands the physical connection back to the pool instead of
+	 * closing the socket, so the existing try-with-resource blocks in the DAO
+	 * keep working unchanged.
+	 *
+	 * - at most maxSize connections are checked out at once; a borrower waits
+	 *   up to acquireTimeoutMs and then gets a DbException
+	 * - idle connections are reused most-recently-used first, and validated
+	 *   with isValid() if they sat idle longer than the bypass window
+	 * - a housekeeping thread closes connections idle longer than
+	 *   idleTimeoutMs (never dropping below minSize), tops the pool back up
+	 *   to minSize, and reports connections held longer than
+	 *   leakDetectionThresholdMs along with where they were borrowed
+	 * - statements are only wrapped (see StatementProxy) when SQL tracing or
+	 *   db.metrics.timeStatements is on. Otherwise they are the driver's own,
+	 *   and their getConnection returns the physical connection, which must
+	 *   not be closed; close the connection that was borrowed instead
+	 */
+
+	private static final LatencyHistogram ACQUIRE_TIMER = Metrics.timer("pool.acquire");
+
+	//a connection used this recently is assumed to still be alive
+	private static final long VALIDATION_BYPASS_MS = 500;
+
+	private final DbConfig config;
+	private final boolean timeStatements;
+	private final boolean wrapStatements;
+	private final Semaphore permits;
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+	private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger total = new AtomicInteger();
+	private final ScheduledExecutorService housekeeper;
+
+	private volatile boolean closed;
+	private String lastHousekeepingFailure;
+
+	public ConnectionPool(DbConfig config) {
+		if(config.getMaxPoolSize() < 1 || config.getMinPoolSize() > config.getMaxPoolSize()) {
+			throw new DbException("Invalid pool size: min=" + config.getMinPoolSize()
+					+ ", max=" + config.getMaxPoolSize());
+		}
+
+		this.config = config;
+		this.timeStatements = config.isStatementTimingEnabled();
+		this.wrapStatements = timeStatements || SqlTracer.ENABLED;
+		this.permits = new Semaphore(config.getMaxPoolSize(), true);
+
+		housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "projects-pool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		long period = config.getHousekeepingPeriodMs();
+		housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Borrows a connection, waiting up to the acquire timeout for one to free up.
+	 * The caller must close() it (try-with-resource) to give it back.
+	 */
+	public Connection borrow() {
+		long start = System.nanoTime();
+		
+		try {
+			return acquire();
+		}
+		finally {
+			ACQUIRE_TIMER.recordSince(start);
+		}
+	}
+
+	private Connection acquire() {
+		if(closed) {
+			throw new DbException("The connection pool has been shut down.");
+		}
+
+		try {
+			if(!permits.tryAcquire(config.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+				throw new DbException("Timed out after " + config.getAcquireTimeoutMs()
+						+ "ms waiting for a connection to " + config.getJdbcUrl()
+						+ " (" + leases.size() + " in use, max " + config.getMaxPoolSize() + ")");
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted while waiting for a connection", e);
+		}
+
+		try {
+			PooledConnection pooled;
+
+			while(Objects.nonNull(pooled = idle.pollFirst())) {
+				if(isUsable(pooled)) {
+					return lease(pooled);
+				}
+
+				discard(pooled);
+			}
+
+			return lease(open());
+		}
+		catch(RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Number of physical connections currently open, idle or in use.
+	 */
+	@Override
+	public int getTotalConnections() {
+		return total.get();
+	}
+
+	@Override
+	public int getIdleConnections() {
+		return idle.size();
+	}
+
+	@Override
+	public int getActiveConnections() {
+		return leases.size();
+	}
+
+	@Override
+	public int getMaxConnections() {
+		return config.getMaxPoolSize();
+	}
+
+	/**
+	 * Stops housekeeping and closes every idle connection. Connections still
+	 * checked out are closed when they are returned.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+
+		PooledConnection pooled;
+
+		while(Objects.nonNull(pooled = idle.pollFirst())) {
+			discard(pooled);
+		}
+	}
+
+	private Connection lease(PooledConnection pooled) {
+		Lease lease = new Lease(pooled);
+		leases.add(lease);
+
+		return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] {Connection.class}, lease);
+	}
+
+	/**
+	 * Called when a borrower closes its proxy. Anything left uncommitted is
+	 * rolled back so the next borrower starts from a clean, auto-commit
+	 * connection.
+	 *
+	 * A borrower that never called setAutoCommit or setReadOnly costs nothing
+	 * here. Otherwise a connection still out of auto-commit is always rolled
+	 * back, since a statement prepared before a commit can run again after
+	 * it and setAutoCommit(true) would commit that work. With Connector/J's
+	 * useLocalSessionState and useLocalTransactionState (see db.urlOptions)
+	 * getAutoCommit is answered locally and the rollback is only sent when
+	 * the server reports a transaction still open, so a DAO method that
+	 * committed pays just the one setAutoCommit(true).
+	 */
+	private void giveBack(Lease lease) {
+		leases.remove(lease);
+		PooledConnection pooled = lease.pooled;
+
+		try {
+			Connection conn = pooled.physical;
+
+			if(lease.autoCommitChanged && !conn.getAutoCommit()) {
+				conn.rollback();
+				conn.setAutoCommit(true);
+			}
+
+			if(lease.readOnlyChanged) {
+				conn.setReadOnly(false);
+			}
+
+			pooled.lastUsed = System.currentTimeMillis();
+
+			if(closed) {
+				discard(pooled);
+			}
+			else {
+				idle.offerFirst(pooled);
+			}
+		}
+		catch(SQLException e) {
+			//a connection that cannot be reset is not safe to hand out again
+			discard(pooled);
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Called when a borrower aborts its proxy: the physical connection is
+	 * closed rather than handed to the next borrower.
+	 */
+	private void throwAway(Lease lease) {
+		leases.remove(lease);
+
+		try {
+			discard(lease.pooled);
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	private boolean isUsable(PooledConnection pooled) {
+		if(System.currentTimeMillis() - pooled.lastUsed < VALIDATION_BYPASS_MS) {
+			return true;
+		}
+
+		try {
+			return pooled.physical.isValid(config.getValidationTimeoutSec());
+		}
+		catch(SQLException e) {
+			return false;
+		}
+	}
+
+	private PooledConnection open() {
+		try {
+			Connection conn = DriverManager.getConnection(config.getJdbcUrl(), config.getUser(),
+					config.getPassword());
+			total.incrementAndGet();
+			return new PooledConnection(conn);
+		}
+		catch(SQLException e) {
+			throw new DbException("Unable to get connection at " + config.getJdbcUrl(), e);
+		}
+	}
+
+	private void discard(PooledConnection pooled) {
+		total.decrementAndGet();
+
+		try {
+			pooled.physical.close();
+		}
+		catch(SQLException e) {
+			//the connection is being thrown away anyway
+		}
+	}
+
+	private void housekeep() {
+		try {
+			evictIdle();
+			fillToMinimum();
+			reportLeaks();
+		}
+		catch(RuntimeException e) {
+			//only report a failure once so a database outage does not flood the console
+			if(!e.toString().equals(lastHousekeepingFailure)) {
+				warn("housekeeping failed: " + e);
+			}
+			lastHousekeepingFailure = e.toString();
+			return;
+		}
+
+		lastHousekeepingFailure = null;
+	}
+
+	private void evictIdle() {
+		long cutoff = System.currentTimeMillis() - config.getIdleTimeoutMs();
+
+		//oldest connections sit at the tail since returns go to the head
+		Iterator<PooledConnection> it = idle.descendingIterator();
+
+		while(it.hasNext() && total.get() > config.getMinPoolSize()) {
+			PooledConnection pooled = it.next();
+
+			if(pooled.lastUsed < cutoff && idle.remove(pooled)) {
+				discard(pooled);
+			}
+		}
+	}
+
+	private void fillToMinimum() {
+		while(!closed && total.get() < config.getMinPoolSize()) {
+			PooledConnection pooled = open();
+			pooled.lastUsed = System.currentTimeMillis();
+			idle.offerLast(pooled);
+		}
+	}
+
+	private void reportLeaks() {
+		long threshold = config.getLeakDetectionThresholdMs();
+
+		if(threshold <= 0) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+
+		for(Lease lease : leases) {
+			if(!lease.leakReported && now - lease.borrowedAt > threshold) {
+				lease.leakReported = true;
+
+				StringBuilder message = new StringBuilder("possible connection leak: a connection ")
+						.append("has been held for ").append(now - lease.borrowedAt).append("ms, borrowed");
+
+				for(StackTraceElement frame : lease.borrowedBy.getStackTrace()) {
+					message.append(System.lineSeparator()).append("\tat ").append(frame);
+				}
+
+				warn(message.toString());
+			}
+		}
+	}
+
+	/**
+	 * Pool problems go to stderr, so they do not land in the middle of the
+	 * menu on stdout.
+	 */
+	private static void warn(String message) {
+		System.err.println("[connection pool] " + message);
+	}
+
+	/**
+	 * A physical connection and the time it was last handed back.
+	 */
+	private static class PooledConnection {
+		private final Connection physical;
+		private volatile long lastUsed = System.currentTimeMillis();
+
+		private PooledConnection(Connection physical) {
+			this.physical = physical;
+		}
+	}
+
+	/**
+	 * One checkout of a pooled connection. This is the proxy's handler: close()
+	 * returns the connection to the pool, and any call after that fails rather
+	 * than touching a connection someone else may now be using.
+	 */
+	private class Lease implements InvocationHandler {
+		private final PooledConnection pooled;
+		private final long borrowedAt = System.currentTimeMillis();
+		private final Exception borrowedBy = new Exception("Connection borrowed here");
+
+		private boolean returned;
+		private boolean autoCommitChanged;
+		private boolean readOnlyChanged;
+		private volatile boolean leakReported;
+
+		private Lease(PooledConnection pooled) {
+			this.pooled = pooled;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+
+			switch(name) {
+			case "close":
+				if(!returned) {
+					returned = true;
+					giveBack(this);
+				}
+				return null;
+
+			case "abort":
+				//a borrower that cannot tell what state the connection is in
+				//gives it up; it is closed instead of going back to the pool
+				if(!returned) {
+					returned = true;
+					throwAway(this);
+				}
+				return null;
+
+			case "isClosed":
+				return returned || pooled.physical.isClosed();
+
+			case "equals":
+				return proxy == args[0];
+
+			case "hashCode":
+				return System.identityHashCode(proxy);
+
+			case "toString":
+				return "Pooled " + pooled.physical;
+
+			default:
+				break;
+			}
+
+			if(returned) {
+				throw new SQLException("Connection has already been returned to the pool.");
+			}
+
+			if(name.equals("setAutoCommit")) {
+				autoCommitChanged = true;
+			}
+			else if(name.equals("setReadOnly")) {
+				readOnlyChanged = true;
+			}
+
+			Object result;
+
+			try {
+				result = method.invoke(pooled.physical, args);
+			}
+			catch(InvocationTargetException e) {
+				throw e.getCause();
+			}
+
+			//statements are wrapped only when their execution is timed or traced
+			if(wrapStatements && result instanceof Statement) {
+				String sql = Objects.nonNull(args) && args.length > 0 && args[0] instanceof String
+						? (String)args[0] : null;
+				return StatementProxy.wrap((Statement)result, method.getReturnType(), sql,
+						(Connection)proxy, timeStatements);
+			}
+
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,17 @@
+package projects.dao;
+
+public interface ConnectionPoolMBean {
+
+	/**
+	 * The pool counters shown through JMX.
+	 */
+
+	int getTotalConnections();
+
+	int getIdleConnections();
+
+	int getActiveConnections();
+
+	int getMaxConnections();
+
+}
@@ -0,0 +1,163 @@
+package projects.dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.Properties;
+
+import projects.exception.DbException;
+
+public class DbConfig {
+
+	/**
+	 * Holds the connection and pool settings. The defaults are read from
+	 * db.properties on the classpath, and any single value can be replaced
+	 * by a system property with the same key (-Ddb.host=...). This keeps the
+	 * host, user and password out of the code.
+	 */
+
+	private static final String RESOURCE = "db.properties";
+
+	private final Properties properties;
+
+	private DbConfig(Properties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Loads db.properties from the classpath and layers system properties over it.
+	 * @return the merged configuration
+	 */
+	public static DbConfig load() {
+		Properties props = new Properties();
+
+		try(InputStream in = DbConfig.class.getClassLoader().getResourceAsStream(RESOURCE)){
+			if(Objects.nonNull(in)) {
+				props.load(in);
+			}
+		}
+		catch(IOException e) {
+			throw new DbException("Unable to read " + RESOURCE, e);
+		}
+
+		//system properties win over the file so settings can change per launch
+		for(String key : System.getProperties().stringPropertyNames()) {
+			if(key.startsWith("db.")) {
+				props.setProperty(key, System.getProperty(key));
+			}
+		}
+
+		return new DbConfig(props);
+	}
+
+	public String getHost() {
+		return getString("db.host", "localhost");
+	}
+
+	public int getPort() {
+		return getInt("db.port", 3306);
+	}
+
+	public String getSchema() {
+		return getString("db.schema", "projects");
+	}
+
+	public String getUser() {
+		return getString("db.user", "projects");
+	}
+
+	public String getPassword() {
+		return getString("db.password", "projects");
+	}
+
+	public int getMinPoolSize() {
+		return getInt("db.pool.minSize", 2);
+	}
+
+	public int getMaxPoolSize() {
+		return getInt("db.pool.maxSize", 10);
+	}
+
+	public long getAcquireTimeoutMs() {
+		return getLong("db.pool.acquireTimeoutMs", 5000);
+	}
+
+	public long getIdleTimeoutMs() {
+		return getLong("db.pool.idleTimeoutMs", 300000);
+	}
+
+	public long getLeakDetectionThresholdMs() {
+		return getLong("db.pool.leakDetectionThresholdMs", 60000);
+	}
+
+	public int getValidationTimeoutSec() {
+		return getInt("db.pool.validationTimeoutSec", 2);
+	}
+
+	public long getHousekeepingPeriodMs() {
+		return getLong("db.pool.housekeepingPeriodMs", 30000);
+	}
+
+	/**
+	 * Whether the pool times every statement execute call in the jdbc.execute
+	 * timer. Off by default, as it means wrapping each statement in a proxy.
+	 */
+	public boolean isStatementTimingEnabled() {
+		return getBoolean("db.metrics.timeStatements", false);
+	}
+
+	/**
+	 * Driver settings appended to the URL, such as rewriteBatchedStatements=true.
+	 */
+	public String getUrlOptions() {
+		return getString("db.urlOptions", "");
+	}
+
+	/**
+	 * Builds the JDBC URL without the user and password so it is safe to print.
+	 * Setting db.url replaces the whole URL, for example to point the DAO at a
+	 * stand-in database for benchmarks.
+	 */
+	public String getJdbcUrl() {
+		String fullUrl = getString("db.url", null);
+		
+		if(Objects.nonNull(fullUrl)) {
+			return fullUrl;
+		}
+		
+		String url = String.format("jdbc:mysql://%s:%d/%s", getHost(), getPort(), getSchema());
+		String options = getUrlOptions();
+
+		return options.isEmpty() ? url : url + "?" + options;
+	}
+
+	public String getString(String key, String defaultValue) {
+		String value = properties.getProperty(key);
+		return Objects.isNull(value) || value.isBlank() ? defaultValue : value.trim();
+	}
+
+	public int getInt(String key, int defaultValue) {
+		return (int)getLong(key, defaultValue);
+	}
+
+	public long getLong(String key, long defaultValue) {
+		String value = getString(key, null);
+
+		if(Objects.isNull(value)) {
+			return defaultValue;
+		}
+
+		try {
+			return Long.parseLong(value);
+		}
+		catch(NumberFormatException e) {
+			throw new DbException(key + "=" + value + " is not a valid number.");
+		}
+	}
+
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = getString(key, null);
+		return Objects.isNull(value) ? defaultValue : Boolean.parseBoolean(value);
+	}
+
+}
@@ -0,0 +1,236 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import projects.exception.DbException;
+import projects.metrics.Metrics;
+
+public class DbConnection {
+
+	/**
+	 * Hands out JDBC Connection objects from a shared connection pool. Opening a
+	 * connection through DriverManager means a new TCP connection and MySQL login
+	 * every time, so the pool keeps a few connections open and lends them out.
+	 * Closing the borrowed connection (try-with-resource) gives it back to the pool.
+	 *
+	 * The host, port, schema, user, password and pool settings come from
+	 * db.properties on the classpath and can be overridden with system
+	 * properties, see DbConfig. If no connection can be obtained, an unchecked
+	 * DbException is thrown.
+	 */
+
+	private static class ConfigHolder {
+		private static final DbConfig CONFIG = DbConfig.load();
+	}
+
+	private static class PoolHolder {
+		//created on first use so nothing connects until a DAO method needs it
+		private static final ConnectionPool POOL = createPool();
+
+		private static ConnectionPool createPool() {
+			ConnectionPool pool = new ConnectionPool(ConfigHolder.CONFIG);
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				runShutdownTasks();
+				pool.close();
+			}, "projects-pool-shutdown"));
+
+			Metrics.register("projects:type=ConnectionPool", pool);
+			Metrics.gauge("pool.active", pool::getActiveConnections);
+			Metrics.gauge("pool.idle", pool::getIdleConnections);
+			Metrics.gauge("pool.total", pool::getTotalConnections);
+			Metrics.getInstance().startReporter(
+					ConfigHolder.CONFIG.getLong("db.metrics.reportIntervalSec", 0));
+
+			return pool;
+		}
+	}
+
+	//the transaction bound to this thread by inTransaction, if any
+	private static final ThreadLocal<Transaction> CURRENT = new ThreadLocal<>();
+	
+	//run by the pool's shutdown hook before it closes the pool, see beforeShutdown
+	private static final List<Runnable> SHUTDOWN_TASKS = new CopyOnWriteArrayList<>();
+
+	public static java.sql.Connection getConnection(){
+		Transaction tx = CURRENT.get();
+
+		//inside inTransaction every DAO call shares the bound connection
+		if(Objects.nonNull(tx)) {
+			return tx.join();
+		}
+
+		Connection conn = PoolHolder.POOL.borrow();
+		return conn;
+	}
+
+	/**
+	 * Runs the work with one connection bound to this thread, so every DAO
+	 * method it calls uses that connection.
+	 *
+	 * A read-write transaction turns auto-commit off, commits once when the
+	 * work returns and rolls back if it throws or a DAO method rolled back.
+	 *
+	 * A read-only transaction leaves auto-commit on and never commits. InnoDB
+	 * runs each SELECT as its own read-only transaction, so there is no BEGIN
+	 * or COMMIT round trip; the catch is that separate statements are not
+	 * guaranteed to see the same snapshot.
+	 *
+	 * The connection is also put in read-only mode (the pool takes it out
+	 * again when it is returned), so a write in a read-only transaction fails
+	 * instead of committing on its own.
+	 *
+	 * Actions registered with afterCommit run once the connection is back in
+	 * the pool. One that throws is reported on stderr and the rest still run;
+	 * the transaction has committed, so the caller is not told it failed.
+	 *
+	 * Calling this inside another transaction simply joins the outer one. If
+	 * the inner work fails, the outer transaction is marked rollback-only, so
+	 * it cannot commit even when the caller catches the exception.
+	 */
+	public static <T> T inTransaction(boolean readOnly, Supplier<T> work) {
+		Transaction outer = CURRENT.get();
+
+		if(Objects.nonNull(outer)) {
+			if(outer.isReadOnly() && !readOnly) {
+				throw new DbException("A read-write transaction cannot run inside a read-only one.");
+			}
+
+			try {
+				return work.get();
+			}
+			catch(RuntimeException e) {
+				outer.setRollbackOnly();
+				throw e;
+			}
+		}
+
+		Transaction tx;
+		T result;
+
+		try(Connection conn = PoolHolder.POOL.borrow()){
+			tx = new Transaction(conn, readOnly);
+			CURRENT.set(tx);
+
+			try {
+				if(readOnly) {
+					conn.setReadOnly(true);
+				}
+				else {
+					conn.setAutoCommit(false);
+				}
+
+				result = work.get();
+
+				if(!readOnly) {
+					if(tx.isRollbackOnly()) {
+						throw new DbException("The transaction was rolled back by a failed operation.");
+					}
+					conn.commit();
+				}
+			}
+			catch(RuntimeException e) {
+				if(!readOnly) {
+					try {
+						conn.rollback();
+					}
+					catch(SQLException rollbackFailure) {
+						e.addSuppressed(rollbackFailure);
+					}
+				}
+				throw e;
+			}
+			finally {
+				CURRENT.remove();
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+
+		//the transaction has committed, so a failing action is reported on its
+		//own rather than thrown as if the transaction had failed
+		for(Runnable action : tx.getAfterCommitActions()) {
+			try {
+				action.run();
+			}
+			catch(RuntimeException e) {
+				System.err.println("After-commit action failed: " + e);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * True while a read-write transaction is bound to this thread.
+	 */
+	public static boolean isInTransaction() {
+		Transaction tx = CURRENT.get();
+		return Objects.nonNull(tx) && !tx.isReadOnly();
+	}
+
+	/**
+	 * Runs the action once the current read-write transaction has committed,
+	 * or straight away if there is none. Nothing runs if it rolls back.
+	 */
+	public static void afterCommit(Runnable action) {
+		if(isInTransaction()) {
+			CURRENT.get().afterCommit(action);
+		}
+		else {
+			action.run();
+		}
+	}
+
+	/**
+	 * Runs the task when the JVM shuts down, while the pool can still lend
+	 * connections. Shutdown hooks run in no set order, so a task that writes
+	 * to the database registers here instead of adding its own hook, which
+	 * could run after the pool has closed.
+	 */
+	public static void beforeShutdown(Runnable task) {
+		SHUTDOWN_TASKS.add(task);
+		
+		//the hook that runs the tasks is added with the pool
+		Objects.requireNonNull(PoolHolder.POOL);
+	}
+
+	/**
+	 * Takes back a task given to beforeShutdown, for something closed before
+	 * the JVM exits.
+	 */
+	public static void cancelBeforeShutdown(Runnable task) {
+		SHUTDOWN_TASKS.remove(task);
+	}
+
+	private static void runShutdownTasks() {
+		for(Runnable task : SHUTDOWN_TASKS) {
+			try {
+				task.run();
+			}
+			catch(RuntimeException e) {
+				System.err.println("Shutdown task failed: " + e);
+			}
+		}
+	}
+
+	/**
+	 * The settings loaded from db.properties and system properties.
+	 */
+	public static DbConfig getConfig() {
+		return ConfigHolder.CONFIG;
+	}
+
+	/**
+	 * Gives access to the pool itself, for its size and usage counts.
+	 */
+	public static ConnectionPool getPool() {
+		return PoolHolder.POOL;
+	}
+
+}
@@ -0,0 +1,1539 @@
+package projects.dao;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.mysql.cj.x.protobuf.MysqlxSql.StmtExecute;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Page;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+import projects.exception.DbException;
+import provided.util.DaoBase;
+
+public class ProjectDao extends DaoBase {
+	
+	//This is my DAO data layer. Reads and writes to the MySQL database. 
+	
+	static final private String CATEGORY_TABLE = "category";
+	static final private String MATERIAL_TABLE = "material";
+	static final private String PROJECT_TABLE = "project";
+	static final private String PROJECT_CATEGORY_TABLE = "project_category";
+	static final private String STEP_TABLE = "step";
+	
+	//number of rows sent to MySQL per executeBatch()
+	static final private int BATCH_SIZE = 1000;
+	
+	//The statements that read, change or delete existing rows. They are kept
+	//here, rather than in the methods, so QueryPlanCheck can EXPLAIN exactly
+	//what the methods run.
+	static final String FETCH_PROJECT_SQL = 
+			"SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+	static final String FETCH_MATERIALS_SQL = 
+			"SELECT * FROM " + MATERIAL_TABLE + " WHERE project_id = ?";
+	static final String FETCH_STEPS_SQL = 
+			"SELECT * FROM " + STEP_TABLE + " WHERE project_id = ? ORDER BY step_order";
+	
+	//only the IDs: the names come from the CategoryDictionary
+	static final String FETCH_CATEGORIES_SQL = "SELECT category_id FROM " 
+			+ PROJECT_CATEGORY_TABLE + " WHERE project_id = ? ORDER BY category_id";
+	
+	static final String FETCH_ALL_PROJECTS_SQL = 
+			"SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_name";
+	static final String FETCH_ALL_SUMMARIES_SQL = "SELECT project_id, project_name FROM " 
+			+ PROJECT_TABLE + " ORDER BY project_name, project_id";
+	static final String FETCH_ALL_CATEGORIES_SQL = 
+			"SELECT * FROM " + CATEGORY_TABLE + " ORDER BY category_name";
+	
+	static final String PROJECT_COLUMNS = "*";
+	static final String SUMMARY_COLUMNS = "project_id, project_name";
+	
+	static final String GRAPH_PROJECTS_SQL = 
+			"SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_id";
+	static final String GRAPH_MATERIALS_SQL = 
+			"SELECT * FROM " + MATERIAL_TABLE + " ORDER BY project_id, material_id";
+	static final String GRAPH_STEPS_SQL = 
+			"SELECT * FROM " + STEP_TABLE + " ORDER BY project_id, step_order";
+	
+	static final String GRAPH_CATEGORIES_SQL = "SELECT project_id, category_id FROM " 
+			+ PROJECT_CATEGORY_TABLE + " ORDER BY project_id, category_id";
+	
+	//Projects in a category, in project ID order, through the (category_id,
+	//project_id) index. Pages continue from the last project ID seen.
+	// @formatter:off
+	static final String CATEGORY_PAGE_SQL = ""
+			+ "SELECT p.project_id, p.project_name "
+			+ "FROM " + PROJECT_CATEGORY_TABLE + " pc "
+			+ "JOIN " + PROJECT_TABLE + " p ON p.project_id = pc.project_id "
+			+ "WHERE pc.category_id = ? AND pc.project_id > ? "
+			+ "ORDER BY pc.project_id "
+			+ "LIMIT ?";
+	
+	static final String MODIFY_PROJECT_SQL = "UPDATE " + PROJECT_TABLE + " SET "
+			+ "project_name = ?, estimated_hours = ?, actual_hours = ?, difficulty = ?, notes = ? "
+			+ "WHERE project_id = ?";
+	// @formatter:on
+	
+	//Keyword search. Each table is searched through its FULLTEXT index, and a
+	//project's relevance is the sum of its notes' and its steps' scores.
+	// @formatter:off
+	static final String SEARCH_SQL = ""
+			+ "SELECT p.project_id, p.project_name, SUM(hits.score) AS score "
+			+ "FROM ("
+			+ "SELECT project_id, MATCH (notes) AGAINST (?) AS score FROM " + PROJECT_TABLE + " "
+			+ "WHERE MATCH (notes) AGAINST (?) "
+			+ "UNION ALL "
+			+ "SELECT project_id, MATCH (step_text) AGAINST (?) FROM " + STEP_TABLE + " "
+			+ "WHERE MATCH (step_text) AGAINST (?)"
+			+ ") hits "
+			+ "JOIN " + PROJECT_TABLE + " p USING (project_id) "
+			+ "GROUP BY p.project_id, p.project_name "
+			+ "ORDER BY score DESC, p.project_id "
+			+ "LIMIT ? OFFSET ?";
+	// @formatter:on
+	
+	//the project columns modifyChangedFields can write, in column order
+	static final private List<String> DETAIL_FIELDS = 
+			List.of("projectName", "estimatedHours", "actualHours", "difficulty", "notes");
+	
+	//time logged since the last flush is added to the stored hours in SQL,
+	//so concurrent writers never overwrite each other's totals
+	static final String ADD_ACTUAL_HOURS_SQL = "UPDATE " + PROJECT_TABLE 
+			+ " SET actual_hours = COALESCE(actual_hours, 0) + ? WHERE project_id = ?";
+	
+	static final String DELETE_PROJECT_SQL = "DELETE FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+	static final String MAX_STEP_ORDER_SQL = 
+			maxSequenceNumberSql(STEP_TABLE, "project_id", "step_order");
+	
+	//virtual threads for the parallel aggregate load
+	static final private ExecutorService CHILD_LOADER = Executors.newVirtualThreadPerTaskExecutor();
+	
+	//category names by ID, so project loads do not join the category table
+	private final CategoryDictionary categoryDictionary = CategoryDictionary.getInstance();
+	
+	private AggregateLoadMode aggregateLoadMode = AggregateLoadMode.valueOf(
+			DbConnection.getConfig().getString("db.aggregateLoadMode", "SINGLE_ROUND_TRIP"));
+	
+	
+	/**
+	 * This method will save the project details. First a SQL statement is made.
+	 * Then a Connection is obtained and transaction started. A PreparedStatement
+	 * is needed since we used user input, and it sets the parameter values for
+	 * the Project object. Data is saved, transaction committed. 
+	 */
+	public Project insertProject(Project project) {
+	
+	//writes the SQL statement that takes and inserts the values from project
+	//from the insertProject() method. Uses ?'s as place holders for values. 
+		
+	// @formatter:off
+	String sql = ""
+			+ "INSERT INTO " + PROJECT_TABLE + " "
+			+ "(project_name, estimated_hours, actual_hours, difficulty, notes) "
+			+ "VALUES "
+			+ "(?, ?, ?, ?, ?)";
+	// @formatter:on
+	
+	//obtains connection, uses a try-with-resource statement
+	try(Connection conn = DbConnection.getConnection()){
+		
+		//starts transaction, startTransaction() if from DaoBase class
+		startTransaction(conn);
+		
+		//creates PreparedStatement, using method on Connection class 
+		//called prepareStatement(). Uses a try-with-resource. 
+		//Passes the SQL statement in as the parameter, and asks the driver
+		//to hand back the generated project ID.
+		try(PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)){
+			
+			//sets Parameters, uses convenience method setParameter() from DaoBase
+			setParameter(stmt, 1, project.getProjectName(), String.class);
+			setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
+			setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+			setParameter(stmt, 4, project.getDifficulty(), Integer.class);
+			setParameter(stmt, 5, project.getNotes(), String.class);
+			
+			//performs the insert. Do NOT pass in parameters to executeUpdate()
+			//or it resets all parameters and gives an obscure error
+			stmt.executeUpdate();
+			
+			//gets the project ID from the generated keys. MySQL sends it back
+			//with the insert result, so this is not another trip to the server.
+			Integer projectId= getGeneratedIds(stmt).get(0);
+			
+			//commits the transaction, using DaoBase method 
+			commitTransaction(conn);
+			
+			//saves the data
+			project.setProjectId(projectId);	
+			
+			//every field set so far is now stored, so none count as changed
+			DbConnection.afterCommit(project::clearChanges);
+			
+			return project;
+		}
+		//catches the inner try block, rolls back transaction if error.
+		catch(Exception e) {
+			rollbackTransaction(conn);
+			throw new DbException(e);			
+		}
+		}
+	//Exception that exception from the try-with-resource 
+	catch(SQLException e) {
+		throw new DbException(e);
+		}
+		
+	}
+
+
+	/**
+	 * Saves many projects in one transaction. The inserts are sent to MySQL
+	 * in JDBC batches of BATCH_SIZE; with rewriteBatchedStatements=true on the
+	 * URL the driver turns each batch into a single multi-row INSERT. The
+	 * generated project IDs come back in the same order as the projects.
+	 */
+	public List<Project> insertProjects(Collection<Project> projects) {
+		
+		// @formatter:off
+		String sql = ""
+				+ "INSERT INTO " + PROJECT_TABLE + " "
+				+ "(project_name, estimated_hours, actual_hours, difficulty, notes) "
+				+ "VALUES "
+				+ "(?, ?, ?, ?, ?)";
+		// @formatter:on
+		
+		List<Project> saved = new ArrayList<>(projects);
+		
+		if(saved.isEmpty()) {
+			return saved;
+		}
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try{
+				insertInBatches(conn, sql, saved, (stmt, project) -> {
+					setParameter(stmt, 1, project.getProjectName(), String.class);
+					setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
+					setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+					setParameter(stmt, 4, project.getDifficulty(), Integer.class);
+					setParameter(stmt, 5, project.getNotes(), String.class);
+				}, Project::setProjectId);
+				
+				commitTransaction(conn);
+				
+				for(Project project : saved) {
+					DbConnection.afterCommit(project::clearChanges);
+				}
+				
+				return saved;
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	
+	/**
+	 * Adds materials to a project in JDBC batches, in one transaction. Each
+	 * material gets the project ID and its generated material ID.
+	 */
+	public List<Material> insertMaterials(Integer projectId, List<Material> materials) {
+		for(Material material : materials) {
+			material.setProjectId(projectId);
+		}
+		
+		return insertMaterials(materials);
+	}
+	
+	
+	/**
+	 * Adds materials that may belong to different projects, each to the
+	 * project in its projectId, in JDBC batches and one transaction.
+	 */
+	public List<Material> insertMaterials(List<Material> materials) {
+		
+		// @formatter:off
+		String sql = ""
+				+ "INSERT INTO " + MATERIAL_TABLE + " "
+				+ "(project_id, material_name, num_required, cost) "
+				+ "VALUES "
+				+ "(?, ?, ?, ?)";
+		// @formatter:on
+		
+		if(materials.isEmpty()) {
+			return materials;
+		}
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try{
+				insertInBatches(conn, sql, materials, (stmt, material) -> {
+					setParameter(stmt, 1, material.getProjectId(), Integer.class);
+					setParameter(stmt, 2, material.getMaterialName(), String.class);
+					setParameter(stmt, 3, material.getNumRequired(), Integer.class);
+					setParameter(stmt, 4, material.getCost(), BigDecimal.class);
+				}, Material::setMaterialId);
+				
+				commitTransaction(conn);
+				
+				return materials;
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	
+	/**
+	 * Adds steps to the end of a project in JDBC batches, in one transaction.
+	 * The highest step_order is read once (and locked, so two callers cannot
+	 * hand out the same numbers) and the new steps are numbered after it.
+	 */
+	public List<Step> insertSteps(Integer projectId, List<Step> steps) {
+		if(steps.isEmpty()) {
+			return steps;
+		}
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try{
+				int nextOrder = getMaxSequenceNumber(conn, projectId, STEP_TABLE, "project_id", 
+						"step_order") + 1;
+				
+				for(Step step : steps) {
+					step.setProjectId(projectId);
+					step.setStepOrder(nextOrder++);
+				}
+				
+				insertStepRows(conn, steps);
+				
+				commitTransaction(conn);
+				
+				return steps;
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	
+	/**
+	 * Adds steps that already have their projectId and stepOrder set, for
+	 * example from an import, in JDBC batches and one transaction.
+	 */
+	public List<Step> insertSteps(List<Step> steps) {
+		if(steps.isEmpty()) {
+			return steps;
+		}
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try{
+				insertStepRows(conn, steps);
+				
+				commitTransaction(conn);
+				
+				return steps;
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	
+	private void insertStepRows(Connection conn, List<Step> steps) throws SQLException {
+		
+		// @formatter:off
+		String sql = ""
+				+ "INSERT INTO " + STEP_TABLE + " "
+				+ "(project_id, step_text, step_order) "
+				+ "VALUES "
+				+ "(?, ?, ?)";
+		// @formatter:on
+		
+		insertInBatches(conn, sql, steps, (stmt, step) -> {
+			setParameter(stmt, 1, step.getProjectId(), Integer.class);
+			setParameter(stmt, 2, step.getStepText(), String.class);
+			setParameter(stmt, 3, step.getStepOrder(), Integer.class);
+		}, Step::setStepId);
+	}
+	
+	
+	/**
+	 * Links each project to the categories in its category list, by
+	 * category ID, in JDBC batches and one transaction.
+	 */
+	public void insertProjectCategories(Collection<Project> projects) {
+		
+		// @formatter:off
+		String sql = ""
+				+ "INSERT INTO " + PROJECT_CATEGORY_TABLE + " "
+				+ "(project_id, category_id) "
+				+ "VALUES "
+				+ "(?, ?)";
+		// @formatter:on
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				int pending = 0;
+				
+				for(Project project : projects) {
+					for(Category category : project.getCategories()) {
+						setParameter(stmt, 1, project.getProjectId(), Integer.class);
+						setParameter(stmt, 2, category.getCategoryId(), Integer.class);
+						stmt.addBatch();
+						
+						if(++pending == BATCH_SIZE) {
+							stmt.executeBatch();
+							pending = 0;
+						}
+					}
+				}
+				
+				if(pending > 0) {
+					stmt.executeBatch();
+				}
+				
+				commitTransaction(conn);
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	
+	/**
+	 * Returns every category, in name order.
+	 */
+	public List<Category> fetchAllCategories() {
+		String sql = FETCH_ALL_CATEGORIES_SQL;
+		
+		try(Connection conn = DbConnection.getConnection()){
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				try(ResultSet rs = stmt.executeQuery()){
+					List<Category> categories = new ArrayList<>();
+					
+					while(rs.next()) {
+						categories.add(extract(rs, Category.class));
+					}
+					
+					return categories;
+				}
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	
+	/**
+	 * Adds categories in one batch. Each gets its generated category ID.
+	 */
+	public List<Category> insertCategories(List<Category> categories) {
+		String sql = "INSERT INTO " + CATEGORY_TABLE + " (category_name) VALUES (?)";
+		
+		if(categories.isEmpty()) {
+			return categories;
+		}
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try{
+				insertInBatches(conn, sql, categories, (stmt, category) -> 
+					setParameter(stmt, 1, category.getCategoryName(), String.class), 
+					Category::setCategoryId);
+				
+				commitTransaction(conn);
+				
+				DbConnection.afterCommit(() -> categoryDictionary.putAll(categories));
+				
+				return categories;
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	
+	/**
+	 * Sets the parameters for one row of a batched INSERT.
+	 */
+	@FunctionalInterface
+	private interface RowBinder<T> {
+		void bind(PreparedStatement stmt, T row) throws SQLException;
+	}
+	
+	
+	/**
+	 * Inserts the rows with one prepared statement, sending BATCH_SIZE rows per
+	 * executeBatch(). The generated IDs are handed back to each row in order.
+	 * The caller owns the transaction.
+	 */
+	private <T> void insertInBatches(Connection conn, String sql, List<T> rows, RowBinder<T> binder,
+			BiConsumer<T, Integer> idSetter) throws SQLException {
+		try(PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)){
+			int start = 0;
+			
+			while(start < rows.size()) {
+				int end = Math.min(start + BATCH_SIZE, rows.size());
+				
+				for(T row : rows.subList(start, end)) {
+					binder.bind(stmt, row);
+					stmt.addBatch();
+				}
+				
+				stmt.executeBatch();
+				
+				List<Integer> ids = getGeneratedIds(stmt);
+				
+				if(ids.size() != end - start) {
+					throw new DbException("Expected " + (end - start) 
+							+ " generated IDs but got " + ids.size());
+				}
+				
+				for(int idx = start; idx < end; idx++) {
+					idSetter.accept(rows.get(idx), ids.get(idx - start));
+				}
+				
+				start = end;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Reads the auto-increment IDs from the last insert or batch on the statement.
+	 */
+	private List<Integer> getGeneratedIds(Statement stmt) throws SQLException {
+		try(ResultSet rs = stmt.getGeneratedKeys()){
+			List<Integer> ids = new ArrayList<>();
+			
+			while(rs.next()) {
+				ids.add(rs.getInt(1));
+			}
+			
+			return ids;
+		}
+	}
+
+
+	/**
+	 * Similar to insertProject but uses ResultSet to retrieve project rows
+	 */
+	public List<Project> fetchAllProjects() {
+		
+		String sql = FETCH_ALL_PROJECTS_SQL;
+		
+		try(Connection conn= DbConnection.getConnection()){
+			
+			startTransaction(conn);
+			
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				
+				try(ResultSet rs = stmt.executeQuery()){
+					List<Project> projects = new LinkedList<>();
+					
+					while(rs.next()) {
+						projects.add(extract(rs, Project.class));
+						
+//						Project project = new Project();
+//						
+//						project.setActualHours(rs.getBigDecimal("actual_hours"));
+//						project.setDifficulty(rs.getObject("difficulty", Integer.class));
+//						project.setEstimatedHours(rs.getBigDecimal("estimated_hours"));
+//						project.setNotes(rs.getString("notes"));
+//						project.setProjectId(rs.getObject("project_id", Integer.class));
+//						project.setProjectName(rs.getString("project_name"));
+//						
+//						projects.add(project);
+					
+					}
+					return projects;
+				}
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	/**
+	 * Returns one page of projects in (project_name, project_id) order, starting
+	 * after the given key. Pass a null afterName for the first page. This seeks
+	 * on idx_project_name_id rather than skipping rows with OFFSET, so every
+	 * page costs the same no matter how deep it is. One extra row is read to
+	 * tell whether another page follows.
+	 */
+	public Page<Project> fetchProjectPage(String afterName, Integer afterId, int pageSize) {
+		return fetchPage(PROJECT_COLUMNS, Project.class, afterName, afterId, pageSize);
+	}
+
+
+	/**
+	 * Same as fetchProjectPage, but reads only project_id and project_name. Both
+	 * columns are in idx_project_name_id, so MySQL answers from the index alone
+	 * and the notes TEXT and hour columns never cross the wire.
+	 */
+	public Page<ProjectSummary> fetchProjectSummaryPage(String afterName, Integer afterId, 
+			int pageSize) {
+		return fetchPage(SUMMARY_COLUMNS, ProjectSummary.class, afterName, afterId, 
+				pageSize);
+	}
+
+
+	/**
+	 * Returns a page of the projects in a category, in project ID order,
+	 * starting after afterId, or at the start if afterId is null. The lookup
+	 * reads the (category_id, project_id) index from the category's first
+	 * entry after afterId, so a page costs the same however far in it is.
+	 */
+	public Page<ProjectSummary> fetchProjectsInCategory(Integer categoryId, Integer afterId, 
+			int pageSize) {
+		try(Connection conn = DbConnection.getConnection()){
+			try(PreparedStatement stmt = conn.prepareStatement(CATEGORY_PAGE_SQL)){
+				setParameter(stmt, 1, categoryId, Integer.class);
+				setParameter(stmt, 2, Objects.isNull(afterId) ? 0 : afterId, Integer.class);
+				setParameter(stmt, 3, pageSize + 1, Integer.class);
+				
+				try(ResultSet rs = stmt.executeQuery()){
+					List<ProjectSummary> items = new ArrayList<>(pageSize);
+					boolean hasMore = false;
+					
+					while(rs.next()) {
+						if(items.size() == pageSize) {
+							hasMore = true;
+							break;
+						}
+						items.add(extract(rs, ProjectSummary.class));
+					}
+					
+					return new Page<>(items, hasMore);
+				}
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	/**
+	 * Finds the projects whose notes or steps contain the words, best match
+	 * first, using MySQL's natural-language full-text search. The lookups go
+	 * through the FULLTEXT indexes, so their cost follows the number of
+	 * matches rather than the size of the tables. Pages are numbered by
+	 * offset, since relevance scores are no key to continue from.
+	 */
+	public Page<ProjectSummary> searchProjects(String words, int offset, int pageSize) {
+		try(Connection conn = DbConnection.getConnection()){
+			try(PreparedStatement stmt = conn.prepareStatement(SEARCH_SQL)){
+				for(int idx = 1; idx <= 4; idx++) {
+					setParameter(stmt, idx, words, String.class);
+				}
+				
+				setParameter(stmt, 5, pageSize + 1, Integer.class);
+				setParameter(stmt, 6, offset, Integer.class);
+				
+				try(ResultSet rs = stmt.executeQuery()){
+					List<ProjectSummary> items = new ArrayList<>(pageSize);
+					boolean hasMore = false;
+					
+					while(rs.next()) {
+						if(items.size() == pageSize) {
+							hasMore = true;
+							break;
+						}
+						items.add(extract(rs, ProjectSummary.class));
+					}
+					
+					return new Page<>(items, hasMore);
+				}
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	/**
+	 * Lists the ID and name of every project, in name order.
+	 */
+	public List<ProjectSummary> fetchAllProjectSummaries() {
+		String sql = FETCH_ALL_SUMMARIES_SQL;
+		
+		try(Connection conn = DbConnection.getConnection()){
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				try(ResultSet rs = stmt.executeQuery()){
+					List<ProjectSummary> summaries = new ArrayList<>();
+					
+					while(rs.next()) {
+						summaries.add(extract(rs, ProjectSummary.class));
+					}
+					
+					return summaries;
+				}
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	private <T> Page<T> fetchPage(String columns, Class<T> classType, String afterName, 
+			Integer afterId, int pageSize) {
+		boolean firstPage = Objects.isNull(afterName);
+		String sql = pageSql(columns, firstPage);
+		
+		try(Connection conn = DbConnection.getConnection()){
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				int idx = 1;
+				
+				if(!firstPage) {
+					setParameter(stmt, idx++, afterName, String.class);
+					setParameter(stmt, idx++, Objects.isNull(afterId) ? 0 : afterId, Integer.class);
+				}
+				
+				setParameter(stmt, idx, pageSize + 1, Integer.class);
+				
+				try(ResultSet rs = stmt.executeQuery()){
+					List<T> items = new ArrayList<>(pageSize);
+					boolean hasMore = false;
+					
+					while(rs.next()) {
+						if(items.size() == pageSize) {
+							hasMore = true;
+							break;
+						}
+						items.add(extract(rs, classType));
+					}
+					
+					return new Page<>(items, hasMore);
+				}
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	/**
+	 * The keyset page query: the first page, or the page after a given
+	 * (project_name, project_id).
+	 */
+	static String pageSql(String columns, boolean firstPage) {
+		//@formatter:off
+		return ""
+				+ "SELECT " + columns + " FROM " + PROJECT_TABLE + " "
+				+ (firstPage ? "" : "WHERE (project_name, project_id) > (?, ?) ")
+				+ "ORDER BY project_name, project_id "
+				+ "LIMIT ?";
+		//@formatter:on
+	}
+
+
+	/**
+	 * Streams every project row instead of collecting them into a list first.
+	 * The driver is asked to stream rows (fetch size Integer.MIN_VALUE), so
+	 * only the current row is held in memory and the first project is
+	 * available as soon as it arrives. The connection stays borrowed until
+	 * the stream is closed, so always use it in a try-with-resource.
+	 */
+	public Stream<Project> streamAllProjects() {
+		return streamQuery(FETCH_ALL_PROJECTS_SQL, Project.class);
+	}
+
+
+	/**
+	 * Walks every project with its materials, steps and categories, passing
+	 * one complete project at a time to the callback. The four tables are
+	 * read with four streaming queries, all in project ID order, and joined
+	 * here the way a merge join does: the children of a project are the run
+	 * of rows at the head of each child cursor with that project ID. So the
+	 * whole database is read in four queries, and only one project is in
+	 * memory at a time.
+	 * 
+	 * Each query streams on its own pooled connection, so this needs four
+	 * free connections, and briefly a fifth if the category dictionary has to
+	 * reread its table, and must not run inside DbConnection.inTransaction.
+	 * The four queries do not share a snapshot: children whose project row
+	 * was not seen (added or deleted while the export ran) are skipped.
+	 */
+	public void forEachProjectGraph(Consumer<Project> callback) {
+		try(Stream<Project> projects = streamQuery(GRAPH_PROJECTS_SQL, Project.class);
+				Stream<Material> materials = streamQuery(GRAPH_MATERIALS_SQL, Material.class);
+				Stream<Step> steps = streamQuery(GRAPH_STEPS_SQL, Step.class);
+				Stream<ProjectCategory> categories = streamQuery(GRAPH_CATEGORIES_SQL, 
+						rs -> new ProjectCategory(rs.getInt("project_id"), rs.getInt("category_id")))){
+			
+			ChildCursor<Material> materialCursor = new ChildCursor<>(materials, Material::getProjectId);
+			ChildCursor<Step> stepCursor = new ChildCursor<>(steps, Step::getProjectId);
+			ChildCursor<ProjectCategory> categoryCursor = new ChildCursor<>(categories, 
+					ProjectCategory::projectId);
+			
+			projects.forEach(project -> {
+				int projectId = project.getProjectId();
+				
+				materialCursor.takeChildren(projectId, project.getMaterials()::add);
+				stepCursor.takeChildren(projectId, project.getSteps()::add);
+				//the four connections are busy streaming, so a category the
+				//dictionary has not seen makes it borrow one of its own
+				categoryCursor.takeChildren(projectId, 
+						row -> addCategory(null, project.getCategories(), row.categoryId()));
+				
+				callback.accept(project);
+			});
+		}
+	}
+	
+	
+	/**
+	 * A project_category row.
+	 */
+	private record ProjectCategory(int projectId, int categoryId) {
+	}
+	
+	
+	/**
+	 * One side of the merge join: a child stream in project ID order that
+	 * can look at its next row without taking it.
+	 */
+	private static class ChildCursor<T> {
+		private final Iterator<T> rows;
+		private final ToIntFunction<T> projectIdOf;
+		private T next;
+		
+		private ChildCursor(Stream<T> rows, ToIntFunction<T> projectIdOf) {
+			this.rows = rows.iterator();
+			this.projectIdOf = projectIdOf;
+			this.next = this.rows.hasNext() ? this.rows.next() : null;
+		}
+		
+		private void takeChildren(int projectId, Consumer<T> child) {
+			//rows for projects the project cursor did not see are orphans
+			while(Objects.nonNull(next) && projectIdOf.applyAsInt(next) < projectId) {
+				advance();
+			}
+			
+			while(Objects.nonNull(next) && projectIdOf.applyAsInt(next) == projectId) {
+				child.accept(next);
+				advance();
+			}
+		}
+		
+		private void advance() {
+			next = rows.hasNext() ? rows.next() : null;
+		}
+	}
+	
+	
+	/**
+	 * Runs a query and returns its rows as a lazily read stream. Closing the
+	 * stream closes the result set and statement and returns the connection.
+	 */
+	private <T> Stream<T> streamQuery(String sql, Class<T> classType) {
+		return streamQuery(sql, rs -> extract(rs, classType));
+	}
+	
+	
+	/**
+	 * Turns the current row of a result set into an object.
+	 */
+	private interface RowMapper<T> {
+		T map(ResultSet rs) throws SQLException;
+	}
+	
+	
+	private <T> Stream<T> streamQuery(String sql, RowMapper<T> mapper) {
+		Connection conn = DbConnection.getConnection();
+		PreparedStatement stmt = null;
+		
+		try {
+			stmt = conn.prepareStatement(sql, 
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			
+			//MySQL's signal to stream the result one row at a time
+			stmt.setFetchSize(Integer.MIN_VALUE);
+			
+			ResultSet rs = stmt.executeQuery();
+			PreparedStatement openStmt = stmt;
+			
+			Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, 
+					Spliterator.ORDERED | Spliterator.NONNULL) {
+				@Override
+				public boolean tryAdvance(Consumer<? super T> action) {
+					try {
+						if(!rs.next()) {
+							return false;
+						}
+						action.accept(mapper.map(rs));
+						return true;
+					}
+					catch(SQLException e) {
+						throw new DbException(e);
+					}
+				}
+			};
+			
+			return StreamSupport.stream(rows, false).onClose(() -> {
+				try(conn; openStmt; rs){
+					//closing in reverse order: result set, statement, connection
+				}
+				catch(SQLException e) {
+					throw new DbException(e);
+				}
+			});
+		}
+		catch(SQLException e) {
+			//the query failed, so nothing will close the stream: close here
+			for(AutoCloseable resource : new AutoCloseable[] {stmt, conn}) {
+				try {
+					if(Objects.nonNull(resource)) {
+						resource.close();
+					}
+				}
+				catch(Exception closeFailure) {
+					e.addSuppressed(closeFailure);
+				}
+			}
+			throw new DbException(e);
+		}
+	}
+
+
+	public AggregateLoadMode getAggregateLoadMode() {
+		return aggregateLoadMode;
+	}
+
+
+	public void setAggregateLoadMode(AggregateLoadMode aggregateLoadMode) {
+		this.aggregateLoadMode = Objects.requireNonNull(aggregateLoadMode);
+	}
+
+
+	/**
+	 * Loads a project with its materials, steps and categories, using the
+	 * current aggregate load mode.
+	 */
+	public Optional<Project> fetchProjectId(Integer projectId) {
+		return fetchProjectId(projectId, aggregateLoadMode);
+	}
+
+
+	public Optional<Project> fetchProjectId(Integer projectId, AggregateLoadMode mode) {
+		switch(mode) {
+		case SINGLE_ROUND_TRIP:
+			return fetchProjectInOneRoundTrip(projectId);
+			
+		case PARALLEL:
+			return fetchProjectInParallel(projectId);
+			
+		case SEPARATE_QUERIES:
+		default:
+			return fetchProjectWithSeparateQueries(projectId);
+		}
+	}
+
+
+	/**
+	 * Sends the project query and the three child queries to MySQL as one
+	 * multi-statement request (this needs allowMultiQueries=true on the URL),
+	 * wrapped in START TRANSACTION READ ONLY and COMMIT so all four see the
+	 * same snapshot. The transaction is opened and closed in the statement
+	 * text, so the whole load is one network exchange, and the connection
+	 * goes back to the pool in auto-commit with nothing left to reset.
+	 */
+	private Optional<Project> fetchProjectInOneRoundTrip(Integer projectId) {
+		//inside a read-write transaction the queries simply join it; a START
+		//TRANSACTION there would implicitly commit the outer transaction
+		boolean ownTransaction = !DbConnection.isInTransaction();
+		
+		//@formatter:off
+		String sql = ""
+			+ (ownTransaction ? "START TRANSACTION READ ONLY; " : "")
+			+ FETCH_PROJECT_SQL + "; "
+			+ FETCH_MATERIALS_SQL + "; "
+			+ FETCH_STEPS_SQL + "; "
+			+ FETCH_CATEGORIES_SQL
+			+ (ownTransaction ? "; COMMIT" : "");
+		//@formatter:on
+		
+		try(Connection conn = DbConnection.getConnection()){
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				for(int idx = 1; idx <= 4; idx++) {
+					setParameter(stmt, idx, projectId, Integer.class);
+				}
+				
+				return Optional.ofNullable(readProjectResults(conn, stmt, stmt.execute()));
+			}
+			catch(Exception e) {
+				if(ownTransaction) {
+					rollbackInText(conn, e);
+				}
+				else {
+					rollbackTransaction(conn);
+				}
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	/**
+	 * Assembles the project from the results of the single round trip: the
+	 * project row, its materials, steps and category IDs as four result sets
+	 * in that order, with the update counts of START TRANSACTION and COMMIT
+	 * around them. Returns null if there is no such project.
+	 */
+	Project readProjectResults(Connection conn, Statement stmt, boolean isResultSet) 
+			throws SQLException {
+		Project project = null;
+		List<Integer> categoryIds = new ArrayList<>();
+		int resultNumber = 0;
+		
+		while(isResultSet || stmt.getUpdateCount() != -1) {
+			if(isResultSet) {
+				try(ResultSet rs = stmt.getResultSet()){
+					switch(resultNumber++) {
+					case 0:
+						project = rs.next() ? extract(rs, Project.class) : null;
+						break;
+						
+					case 1:
+						while(Objects.nonNull(project) && rs.next()) {
+							project.getMaterials().add(extract(rs, Material.class));
+						}
+						break;
+						
+					case 2:
+						while(Objects.nonNull(project) && rs.next()) {
+							project.getSteps().add(extract(rs, Step.class));
+						}
+						break;
+						
+					default:
+						while(Objects.nonNull(project) && rs.next()) {
+							categoryIds.add(rs.getInt("category_id"));
+						}
+						break;
+					}
+				}
+			}
+			
+			isResultSet = stmt.getMoreResults();
+		}
+		
+		//looked up once every result has been read, as a dictionary miss
+		//rereads the category table on this connection
+		for(Integer categoryId : categoryIds) {
+			addCategory(conn, project.getCategories(), categoryId);
+		}
+		
+		return project;
+	}
+
+
+	/**
+	 * Ends a transaction that was started in SQL text. If even the ROLLBACK
+	 * fails, the connection is aborted so the pool does not lend it out with
+	 * the transaction still open.
+	 */
+	private void rollbackInText(Connection conn, Exception failure) throws SQLException {
+		try(Statement rollback = conn.createStatement()){
+			rollback.execute("ROLLBACK");
+		}
+		catch(SQLException e) {
+			failure.addSuppressed(e);
+			conn.abort(Runnable::run);
+		}
+	}
+
+
+	/**
+	 * Loads the project row and categories, the materials and the steps at the
+	 * same time, each on its own pooled connection and virtual thread, so the
+	 * load takes about as long as the slowest of the three.
+	 *
+	 * Each connection reads inside its own transaction and the three start
+	 * together, so they read nearly the same snapshot. MySQL cannot share one
+	 * snapshot between connections, so a write that commits in that instant
+	 * can show up on one side only. Callers that need a strict snapshot should
+	 * use SINGLE_ROUND_TRIP. Inside a transaction scope there is only one
+	 * connection, so this falls back to SINGLE_ROUND_TRIP.
+	 */
+	private Optional<Project> fetchProjectInParallel(Integer projectId) {
+		if(DbConnection.isInTransaction()) {
+			return fetchProjectInOneRoundTrip(projectId);
+		}
+		
+		String sql = FETCH_PROJECT_SQL;
+		
+		CompletableFuture<Project> projectRow = readAsync(conn -> {
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				setParameter(stmt, 1, projectId, Integer.class);
+				
+				try(ResultSet rs = stmt.executeQuery()){
+					if(!rs.next()) {
+						return null;
+					}
+					
+					Project project = extract(rs, Project.class);
+					project.getCategories().addAll(fetchCategoriesForProject(conn, projectId));
+					return project;
+				}
+			}
+		});
+		
+		CompletableFuture<List<Material>> materials = 
+				readAsync(conn -> fetchMaterialsForProject(conn, projectId));
+		CompletableFuture<List<Step>> steps = 
+				readAsync(conn -> fetchStepsForProject(conn, projectId));
+		
+		try {
+			Project project = projectRow.join();
+			
+			if(Objects.nonNull(project)) {
+				project.getMaterials().addAll(materials.join());
+				project.getSteps().addAll(steps.join());
+			}
+			
+			return Optional.ofNullable(project);
+		}
+		catch(CompletionException e) {
+			if(e.getCause() instanceof DbException) {
+				throw (DbException)e.getCause();
+			}
+			throw new DbException(e.getCause());
+		}
+		finally {
+			//let the others finish and hand back their connections before returning
+			CompletableFuture.allOf(projectRow, materials, steps)
+				.exceptionally(failure -> null).join();
+		}
+	}
+
+
+	/**
+	 * Work done with a connection that may throw SQLException.
+	 */
+	@FunctionalInterface
+	private interface SqlWork<T> {
+		T apply(Connection conn) throws SQLException;
+	}
+
+
+	/**
+	 * Runs read-only work on a virtual thread with its own pooled connection
+	 * and transaction.
+	 */
+	private <T> CompletableFuture<T> readAsync(SqlWork<T> work) {
+		return CompletableFuture.supplyAsync(() -> {
+			try(Connection conn = DbConnection.getConnection()){
+				startTransaction(conn);
+				
+				try {
+					T result = work.apply(conn);
+					commitTransaction(conn);
+					return result;
+				}
+				catch(Exception e) {
+					rollbackTransaction(conn);
+					throw new DbException(e);
+				}
+			}
+			catch(SQLException e) {
+				throw new DbException(e);
+			}
+		}, CHILD_LOADER);
+	}
+
+
+	private Optional<Project> fetchProjectWithSeparateQueries(Integer projectId) {
+		String sql = FETCH_PROJECT_SQL;
+		
+		try(Connection conn= DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try{
+				Project project = null;
+				
+				try(PreparedStatement stmt = conn.prepareStatement(sql)){
+					//projectId method parameter
+					setParameter(stmt, 1, projectId, Integer.class);
+					
+					try(ResultSet rs = stmt.executeQuery()){
+						
+						if(rs.next()) {
+							project = extract(rs, Project.class);
+						}
+					}
+				}
+				
+				if(Objects.nonNull(project)) {
+					project.getMaterials().addAll(fetchMaterialsForProject(conn, projectId));
+					project.getSteps().addAll(fetchStepsForProject(conn, projectId));
+					project.getCategories().addAll(fetchCategoriesForProject(conn, projectId));
+					
+				}
+				
+				commitTransaction(conn);
+				
+				return Optional.ofNullable(project);
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	private List<Category> fetchCategoriesForProject(Connection conn, Integer projectId) 
+			throws SQLException {
+		
+		String sql = FETCH_CATEGORIES_SQL;
+		
+		try(PreparedStatement stmt = conn.prepareStatement(sql)){
+			setParameter(stmt, 1, projectId, Integer.class);
+			
+			try(ResultSet rs = stmt.executeQuery()){
+				List<Category> categories = new LinkedList<>();
+				
+				while(rs.next()) {
+					addCategory(conn, categories, rs.getInt("category_id"));
+				}
+				return categories;
+			}
+		}
+		
+	}
+	
+	
+	/**
+	 * Looks the category name up in the dictionary, which rereads the table
+	 * through conn if it does not know the ID. A category deleted since the
+	 * link was read is left out.
+	 */
+	private void addCategory(Connection conn, List<Category> categories, int categoryId) {
+		Category category = categoryDictionary.get(categoryId, conn);
+		
+		if(Objects.nonNull(category)) {
+			categories.add(category);
+		}
+	}
+	
+	private List<Material> fetchMaterialsForProject(Connection conn, Integer projectId) 
+			throws SQLException {
+		
+		String sql = FETCH_MATERIALS_SQL;
+		
+		try(PreparedStatement stmt = conn.prepareStatement(sql)){
+			setParameter(stmt, 1, projectId, Integer.class);
+			
+			try(ResultSet rs = stmt.executeQuery()){
+				List<Material> materials = new LinkedList<>();
+				
+				while(rs.next()) {
+					materials.add(extract(rs, Material.class));
+				}
+				
+				return materials;
+			}
+		}
+		
+	}
+	
+	private List<Step> fetchStepsForProject(Connection conn, Integer projectId) 
+			throws SQLException {
+		
+		String sql = FETCH_STEPS_SQL;
+		
+		try(PreparedStatement stmt = conn.prepareStatement(sql)){
+			setParameter(stmt, 1, projectId, Integer.class);
+			
+			try(ResultSet rs = stmt.executeQuery()){
+				List<Step> steps = new LinkedList<>();
+				
+				while(rs.next()) {
+					steps.add(extract(rs, Step.class));
+				}
+				
+				return steps;
+			}
+			
+		}
+				
+
+	}
+
+
+	/**
+	 * Adds hours, given in hundredths, to the actual hours of each project,
+	 * in batches of BATCH_SIZE and one transaction. The rows are updated in
+	 * project ID order, so two writers lock them in the same order and
+	 * cannot deadlock. A project that no longer exists is skipped.
+	 */
+	public void addActualHours(Map<Integer, Long> hundredthsByProject) {
+		String sql = ADD_ACTUAL_HOURS_SQL;
+		
+		if(hundredthsByProject.isEmpty()) {
+			return;
+		}
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				int pending = 0;
+				
+				for(Map.Entry<Integer, Long> entry : new TreeMap<>(hundredthsByProject).entrySet()) {
+					setParameter(stmt, 1, BigDecimal.valueOf(entry.getValue(), 2), BigDecimal.class);
+					setParameter(stmt, 2, entry.getKey(), Integer.class);
+					stmt.addBatch();
+					
+					if(++pending == BATCH_SIZE) {
+						stmt.executeBatch();
+						pending = 0;
+					}
+				}
+				
+				if(pending > 0) {
+					stmt.executeBatch();
+				}
+				
+				commitTransaction(conn);
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	public boolean modifyProjectDetails(Project project) {
+		
+		String sql = MODIFY_PROJECT_SQL;
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				setParameter(stmt, 1, project.getProjectName(), String.class);
+				setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
+				setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+				setParameter(stmt, 4, project.getDifficulty(), Integer.class);
+				setParameter(stmt, 5, project.getNotes(), String.class);
+				setParameter(stmt, 6, project.getProjectId(), Integer.class);
+				
+			boolean updated = stmt.executeUpdate() == 1;
+			
+			commitTransaction(conn);
+			
+			if(updated) {
+				DbConnection.afterCommit(project::clearChanges);
+			}
+			
+			return updated;
+				
+			}			
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+		
+	}
+
+
+	/**
+	 * Writes only the detail columns whose setters changed them (see
+	 * Project.getChangedFields), so an edit to the name does not resend the
+	 * notes TEXT. A project with no changes is not sent at all and true is
+	 * returned without checking that it exists. The changes are cleared once
+	 * the row is committed.
+	 * 
+	 * Returns false if there is no project with the ID.
+	 */
+	public boolean modifyChangedFields(Project project) {
+		List<String> fields = new ArrayList<>();
+		
+		//column order, whatever order the setters were called in
+		for(String field : DETAIL_FIELDS) {
+			if(project.getChangedFields().contains(field)) {
+				fields.add(field);
+			}
+		}
+		
+		if(fields.isEmpty()) {
+			return true;
+		}
+		
+		StringBuilder sql = new StringBuilder("UPDATE " + PROJECT_TABLE + " SET ");
+		
+		for(int idx = 0; idx < fields.size(); idx++) {
+			sql.append(idx == 0 ? "" : ", ").append(camelCaseToSnakeCase(fields.get(idx))).append(" = ?");
+		}
+		
+		sql.append(" WHERE project_id = ?");
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try(PreparedStatement stmt = conn.prepareStatement(sql.toString())){
+				int idx = 1;
+				
+				for(String field : fields) {
+					switch(field) {
+					case "projectName":
+						setParameter(stmt, idx++, project.getProjectName(), String.class);
+						break;
+					case "estimatedHours":
+						setParameter(stmt, idx++, project.getEstimatedHours(), BigDecimal.class);
+						break;
+					case "actualHours":
+						setParameter(stmt, idx++, project.getActualHours(), BigDecimal.class);
+						break;
+					case "difficulty":
+						setParameter(stmt, idx++, project.getDifficulty(), Integer.class);
+						break;
+					default:
+						setParameter(stmt, idx++, project.getNotes(), String.class);
+					}
+				}
+				
+				setParameter(stmt, idx, project.getProjectId(), Integer.class);
+				
+				boolean updated = stmt.executeUpdate() == 1;
+				
+				commitTransaction(conn);
+				
+				if(updated) {
+					//inside an outer transaction the changes are only saved once it commits
+					DbConnection.afterCommit(project::clearChanges);
+				}
+				
+				return updated;
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	public boolean deleteProject(Integer projectId) {
+		String sql = DELETE_PROJECT_SQL;
+		
+		try(Connection conn = DbConnection.getConnection()){
+			startTransaction(conn);
+			
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				setParameter(stmt, 1, projectId, Integer.class);
+				
+				boolean deleted = stmt.executeUpdate() == 1;
+				
+				commitTransaction(conn);
+				
+				return deleted;
+				
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+}
@@ -0,0 +1,173 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import projects.exception.DbException;
+
+public class QueryPlanCheck {
+
+	/**
+	 * Runs EXPLAIN on every statement ProjectDao and ReportDao use to read,
+	 * change or delete existing rows, against the database in db.properties, and fails
+	 * if one of them scans a whole table it should reach through an index.
+	 *
+	 * A lookup by ID that shows type ALL means an index is missing or no
+	 * longer usable; a keyset page or ordered child list that shows "Using
+	 * filesort" means it lost the index that gives its order. The statements
+	 * that read a whole table on purpose (the full project list, the export
+	 * and the reports) may scan it.
+	 *
+	 * MySQL may prefer a scan on a table with only a handful of rows, so run
+	 * it against a database with realistic data, after SchemaMigrator:
+	 *
+	 *   java -cp target/classes:<mysql-connector-j.jar> projects.dao.QueryPlanCheck
+	 *
+	 * The exit status is 1 if any plan failed, so a build step can use it.
+	 */
+
+	private final List<Check> checks = new ArrayList<>();
+
+	public QueryPlanCheck() {
+		// @formatter:off
+		indexed("fetch project", ProjectDao.FETCH_PROJECT_SQL, 1);
+		indexed("fetch materials", ProjectDao.FETCH_MATERIALS_SQL, 1);
+		ordered("fetch steps", ProjectDao.FETCH_STEPS_SQL, 1);
+		ordered("fetch categories", ProjectDao.FETCH_CATEGORIES_SQL, 1);
+		ordered("all categories", ProjectDao.FETCH_ALL_CATEGORIES_SQL);
+		ordered("all project summaries", ProjectDao.FETCH_ALL_SUMMARIES_SQL);
+		ordered("first project page", ProjectDao.pageSql(ProjectDao.PROJECT_COLUMNS, true), 20);
+		ordered("next project page", ProjectDao.pageSql(ProjectDao.PROJECT_COLUMNS, false), "m", 1, 20);
+		ordered("first summary page", ProjectDao.pageSql(ProjectDao.SUMMARY_COLUMNS, true), 20);
+		ordered("next summary page", ProjectDao.pageSql(ProjectDao.SUMMARY_COLUMNS, false), "m", 1, 20);
+		ordered("projects in category", ProjectDao.CATEGORY_PAGE_SQL, 1, 0, 21);
+		indexed("max step order", ProjectDao.MAX_STEP_ORDER_SQL, 1);
+		indexed("modify project", ProjectDao.MODIFY_PROJECT_SQL, "n", 1, 1, 1, "n", 1);
+		indexed("add actual hours", ProjectDao.ADD_ACTUAL_HOURS_SQL, 1, 1);
+		indexed("delete project", ProjectDao.DELETE_PROJECT_SQL, 1);
+		searched("search", ProjectDao.SEARCH_SQL, "word", "word", "word", "word", 21, 0);
+
+		//whole-table reads: the scan is the point
+		fullRead("all projects", ProjectDao.FETCH_ALL_PROJECTS_SQL, "project");
+		fullRead("export projects", ProjectDao.GRAPH_PROJECTS_SQL, "project");
+		fullRead("export materials", ProjectDao.GRAPH_MATERIALS_SQL, "material");
+		fullRead("export steps", ProjectDao.GRAPH_STEPS_SQL, "step");
+		fullRead("export categories", ProjectDao.GRAPH_CATEGORIES_SQL, "project_category");
+		fullRead("cost report", ReportDao.COST_PER_PROJECT_SQL, "p", "project");
+		fullRead("cost report from rollup", ReportDao.COST_PER_PROJECT_FROM_ROLLUP_SQL, "p", "project");
+		fullRead("effort by difficulty", ReportDao.EFFORT_BY_DIFFICULTY_SQL, "project");
+		fullRead("effort by category", ReportDao.EFFORT_BY_CATEGORY_SQL, "pc", "project_category");
+		fullRead("project batches", ReportDao.PROJECT_BATCH_SQL, "p", "project");
+		// @formatter:on
+	}
+
+	public static void main(String[] args) {
+		int failures = new QueryPlanCheck().run();
+
+		System.out.println(failures == 0 ? "All query plans passed."
+				: failures + " query plan(s) failed.");
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+	/**
+	 * Explains every statement, prints each plan and returns the number that
+	 * failed.
+	 */
+	public int run() {
+		int failures = 0;
+
+		try(Connection conn = DbConnection.getConnection()){
+			for(Check check : checks) {
+				List<String> problems = check.explain(conn);
+
+				System.out.println((problems.isEmpty() ? "PASS " : "FAIL ") + check.name);
+
+				for(String problem : problems) {
+					System.out.println("     " + problem);
+				}
+
+				if(!problems.isEmpty()) {
+					failures++;
+				}
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+
+		return failures;
+	}
+
+	private void indexed(String name, String sql, Object... parameters) {
+		checks.add(new Check(name, sql, parameters, Set.of(), false));
+	}
+
+	private void ordered(String name, String sql, Object... parameters) {
+		checks.add(new Check(name, sql, parameters, Set.of(), true));
+	}
+
+	private void searched(String name, String sql, Object... parameters) {
+		//the full-text hits are gathered in a derived table, which is read whole
+		checks.add(new Check(name, sql, parameters, Set.of("<derived2>"), false));
+	}
+
+	private void fullRead(String name, String sql, String... scannedTables) {
+		checks.add(new Check(name, sql, new Object[0], Set.of(scannedTables), false));
+	}
+
+	private static class Check {
+		private final String name;
+		private final String sql;
+		private final Object[] parameters;
+		private final Set<String> scannedTables;
+		private final boolean noFilesort;
+
+		private Check(String name, String sql, Object[] parameters, Set<String> scannedTables,
+				boolean noFilesort) {
+			this.name = name;
+			this.sql = sql;
+			this.parameters = parameters;
+			this.scannedTables = scannedTables;
+			this.noFilesort = noFilesort;
+		}
+
+		private List<String> explain(Connection conn) throws SQLException {
+			List<String> problems = new ArrayList<>();
+
+			try(PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)){
+				for(int i = 0; i < parameters.length; i++) {
+					stmt.setObject(i + 1, parameters[i]);
+				}
+
+				try(ResultSet rs = stmt.executeQuery()){
+					while(rs.next()) {
+						String table = rs.getString("table");
+						String type = rs.getString("type");
+						String extra = Objects.toString(rs.getString("Extra"), "");
+
+						if("ALL".equals(type) && !scannedTables.contains(table)) {
+							problems.add("full scan of " + table + " (key candidates: "
+									+ rs.getString("possible_keys") + ")");
+						}
+
+						if(noFilesort && extra.contains("Using filesort")) {
+							problems.add("sorts " + table + " instead of reading it in index order");
+						}
+					}
+				}
+			}
+			catch(SQLException e) {
+				problems.add("EXPLAIN failed: " + e.getMessage());
+			}
+
+			return problems;
+		}
+	}
+
+}
@@ -0,0 +1,182 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import projects.entity.EffortRollup;
+import projects.entity.ProjectBatch;
+import projects.entity.ProjectCost;
+import projects.exception.DbException;
+import provided.util.DaoBase;
+
+public class ReportDao extends DaoBase {
+
+	//Rollup reports. Each one is a single GROUP BY query, so MySQL adds up
+	//the rows and only the totals cross the wire.
+
+	//a material with no num_required counts once
+	private static final String LINE_COST = "COALESCE(m.num_required, 1) * COALESCE(m.cost, 0)";
+
+	// @formatter:off
+	static final String COST_PER_PROJECT_SQL = ""
+			+ "SELECT p.project_id, p.project_name, COUNT(m.material_id) AS material_count, "
+			+ "COALESCE(SUM(" + LINE_COST + "), 0) AS total_cost "
+			+ "FROM project p "
+			+ "LEFT JOIN material m USING (project_id) "
+			+ "GROUP BY p.project_id, p.project_name "
+			+ "ORDER BY total_cost DESC, p.project_id";
+
+	//the same figures, read from project_rollup instead of the material rows
+	static final String COST_PER_PROJECT_FROM_ROLLUP_SQL = ""
+			+ "SELECT p.project_id, p.project_name, "
+			+ "CAST(COALESCE(r.material_count, 0) AS SIGNED) AS material_count, "
+			+ "COALESCE(r.total_cost, 0) AS total_cost "
+			+ "FROM project p "
+			+ "LEFT JOIN project_rollup r USING (project_id) "
+			+ "ORDER BY total_cost DESC, p.project_id";
+
+	static final String EFFORT_BY_DIFFICULTY_SQL = ""
+			+ "SELECT COALESCE(CAST(difficulty AS CHAR), 'none') AS group_name, "
+			+ "COUNT(*) AS project_count, "
+			+ "SUM(estimated_hours) AS estimated_hours, SUM(actual_hours) AS actual_hours "
+			+ "FROM project "
+			+ "WHERE estimated_hours IS NOT NULL AND actual_hours IS NOT NULL "
+			+ "GROUP BY difficulty "
+			+ "ORDER BY difficulty";
+
+	static final String EFFORT_BY_CATEGORY_SQL = ""
+			+ "SELECT c.category_name AS group_name, "
+			+ "COUNT(*) AS project_count, "
+			+ "SUM(p.estimated_hours) AS estimated_hours, SUM(p.actual_hours) AS actual_hours "
+			+ "FROM project p "
+			+ "JOIN project_category pc ON pc.project_id = p.project_id "
+			+ "JOIN category c ON c.category_id = pc.category_id "
+			+ "WHERE p.estimated_hours IS NOT NULL AND p.actual_hours IS NOT NULL "
+			+ "GROUP BY c.category_id, c.category_name "
+			+ "ORDER BY c.category_name";
+	
+	//Hours and cost scaled to whole hundredths in SQL, so they are read with
+	//getLong instead of as BigDecimals. The columns are DECIMAL(n, 2), so
+	//the scaling is exact.
+	static final String PROJECT_BATCH_SQL = ""
+			+ "SELECT p.project_id, p.difficulty, "
+			+ "CAST(p.estimated_hours * 100 AS SIGNED) AS estimated_hundredths, "
+			+ "CAST(p.actual_hours * 100 AS SIGNED) AS actual_hundredths, "
+			+ "CAST(COALESCE(SUM(" + LINE_COST + "), 0) * 100 AS SIGNED) AS cost_hundredths "
+			+ "FROM project p "
+			+ "LEFT JOIN material m ON m.project_id = p.project_id "
+			+ "GROUP BY p.project_id, p.difficulty, p.estimated_hours, p.actual_hours "
+			+ "ORDER BY p.project_id";
+	// @formatter:on
+
+
+	/**
+	 * Total material cost of every project, most expensive first, added up
+	 * from the material rows.
+	 */
+	public List<ProjectCost> fetchCostPerProject() {
+		return fetchReport(COST_PER_PROJECT_SQL, ProjectCost.class);
+	}
+
+
+	/**
+	 * Same as fetchCostPerProject, but read from the project_rollup table the
+	 * material triggers keep up to date, so no material row is read.
+	 */
+	public List<ProjectCost> fetchCostPerProjectFromRollup() {
+		return fetchReport(COST_PER_PROJECT_FROM_ROLLUP_SQL, ProjectCost.class);
+	}
+
+
+	/**
+	 * Estimated against actual hours for each difficulty.
+	 */
+	public List<EffortRollup> fetchEffortByDifficulty() {
+		return fetchReport(EFFORT_BY_DIFFICULTY_SQL, EffortRollup.class);
+	}
+
+
+	/**
+	 * Estimated against actual hours for each category. A project in two
+	 * categories counts in both.
+	 */
+	public List<EffortRollup> fetchEffortByCategory() {
+		return fetchReport(EFFORT_BY_CATEGORY_SQL, EffortRollup.class);
+	}
+
+
+	/**
+	 * Reads the numbers of every project into the batch, a batch at a time,
+	 * in project ID order, passing each full batch (and the last, partial
+	 * one) to the callback. The same batch is cleared and reused, so the
+	 * callback must not keep it. The rows are streamed (fetch size
+	 * Integer.MIN_VALUE), so the table is never held in memory.
+	 */
+	public void forEachProjectBatch(ProjectBatch batch, Consumer<ProjectBatch> callback) {
+		try(Connection conn = DbConnection.getConnection()){
+			try(PreparedStatement stmt = conn.prepareStatement(PROJECT_BATCH_SQL, 
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)){
+				stmt.setFetchSize(Integer.MIN_VALUE);
+				
+				try(ResultSet rs = stmt.executeQuery()){
+					while(fill(rs, batch)) {
+						callback.accept(batch);
+					}
+				}
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+
+	/**
+	 * Clears the batch and fills it with the next rows of a PROJECT_BATCH_SQL
+	 * result, until it is full or the rows run out. Returns false if there
+	 * were no rows left.
+	 */
+	public static boolean fill(ResultSet rs, ProjectBatch batch) throws SQLException {
+		batch.clear();
+		
+		while(!batch.isFull() && rs.next()) {
+			int projectId = rs.getInt("project_id");
+			int difficulty = rs.getInt("difficulty");
+			difficulty = rs.wasNull() ? ProjectBatch.NO_DIFFICULTY : difficulty;
+			long estimated = rs.getLong("estimated_hundredths");
+			estimated = rs.wasNull() ? ProjectBatch.NONE : estimated;
+			long actual = rs.getLong("actual_hundredths");
+			actual = rs.wasNull() ? ProjectBatch.NONE : actual;
+			
+			batch.add(projectId, difficulty, estimated, actual, rs.getLong("cost_hundredths"));
+		}
+		
+		return batch.size() > 0;
+	}
+
+
+	private <T> List<T> fetchReport(String sql, Class<T> classType) {
+		try(Connection conn = DbConnection.getConnection()){
+			try(PreparedStatement stmt = conn.prepareStatement(sql)){
+				try(ResultSet rs = stmt.executeQuery()){
+					List<T> rows = new ArrayList<>();
+
+					while(rs.next()) {
+						rows.add(extract(rs, classType));
+					}
+
+					return rows;
+				}
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+}
@@ -0,0 +1,276 @@
+package projects.dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+import projects.exception.DbException;
+
+public class SchemaMigrator {
+
+	/**
+	 * Brings the database schema up to date by applying the numbered scripts
+	 * in db/migration on the classpath: V1.sql, V2.sql and so on, in order,
+	 * until a number is missing. The first line of each script is a comment
+	 * describing it.
+	 *
+	 * Applied versions are recorded in the schema_version table with a
+	 * checksum of the script, so each script runs once per database, and a
+	 * script that was edited after it ran is reported instead of being
+	 * silently skipped. Add a new script rather than changing an old one.
+	 *
+	 * MySQL commits DDL statements one at a time, so a script cannot be
+	 * rolled back as a whole. Creating an index or trigger that already
+	 * exists is therefore treated as done, which lets a failed script be run again and
+	 * lets a database created by projects-schema.sql be brought under
+	 * version control. A named lock keeps two starting processes from
+	 * migrating at the same time.
+	 *
+	 * V4 and V6 create triggers. On a server with binary logging on (the
+	 * MySQL 8 default) that needs the SUPER privilege, or
+	 * log_bin_trust_function_creators=1 on the server, besides the TRIGGER
+	 * privilege on the tables. Without either, MySQL refuses with error 1419
+	 * and the migration stops with a message saying so; an administrator can
+	 * then run the scripts, or set the variable, and start the app again.
+	 */
+
+	private static final String LOCATION = "db/migration/";
+	private static final String VERSION_TABLE = "schema_version";
+	private static final String LOCK_NAME = "projects_schema_migration";
+	private static final int LOCK_TIMEOUT_SEC = 60;
+
+	//MySQL error codes for "Duplicate key name" and "Trigger already exists"
+	private static final int ER_DUP_KEYNAME = 1061;
+	private static final int ER_TRG_ALREADY_EXISTS = 1359;
+
+	//"You do not have the SUPER privilege and binary logging is enabled"
+	private static final int ER_BINLOG_UNSAFE_ROUTINE = 1419;
+
+	/**
+	 * Applies the scripts not applied yet and returns how many ran.
+	 */
+	public int migrate() {
+		try(Connection conn = DbConnection.getConnection()){
+			lock(conn);
+
+			try {
+				createVersionTable(conn);
+
+				Map<Integer, Long> applied = fetchAppliedVersions(conn);
+				int count = 0;
+
+				for(int version = 1; ; version++) {
+					String script = readScript(version);
+
+					if(Objects.isNull(script)) {
+						return count;
+					}
+
+					long checksum = checksum(script);
+					Long appliedChecksum = applied.get(version);
+
+					if(Objects.nonNull(appliedChecksum)) {
+						if(appliedChecksum != checksum) {
+							throw new DbException("Migration V" + version
+									+ " was changed after it was applied. Add a new migration instead.");
+						}
+						continue;
+					}
+
+					long start = System.nanoTime();
+
+					for(String sql : splitStatements(script)) {
+						execute(conn, version, sql);
+					}
+
+					recordVersion(conn, version, description(script), checksum,
+							(System.nanoTime() - start) / 1_000_000);
+
+					warn("Applied schema migration V" + version + ": " + description(script));
+					count++;
+				}
+			}
+			finally {
+				unlock(conn);
+			}
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/**
+	 * The highest version recorded in schema_version, or 0 if none.
+	 */
+	public int getCurrentVersion() {
+		try(Connection conn = DbConnection.getConnection()){
+			createVersionTable(conn);
+
+			return fetchAppliedVersions(conn).keySet().stream()
+					.mapToInt(Integer::intValue).max().orElse(0);
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	void execute(Connection conn, int version, String sql) throws SQLException {
+		try(Statement stmt = conn.createStatement()){
+			stmt.execute(sql);
+		}
+		catch(SQLException e) {
+			if(e.getErrorCode() == ER_BINLOG_UNSAFE_ROUTINE) {
+				throw new DbException("Migration V" + version + " creates a trigger, which with "
+						+ "binary logging on needs the SUPER privilege or "
+						+ "log_bin_trust_function_creators=1 on the server. Have an administrator "
+						+ "grant one of them, or apply the script, and start again.", e);
+			}
+
+			if(e.getErrorCode() != ER_DUP_KEYNAME && e.getErrorCode() != ER_TRG_ALREADY_EXISTS) {
+				throw new DbException("Migration statement failed: " + sql, e);
+			}
+			//the index or trigger is already there, from projects-schema.sql or an earlier try
+		}
+	}
+
+	private void createVersionTable(Connection conn) throws SQLException {
+		// @formatter:off
+		String sql = ""
+				+ "CREATE TABLE IF NOT EXISTS " + VERSION_TABLE + " ("
+				+ "version INT NOT NULL, "
+				+ "description VARCHAR(200) NOT NULL, "
+				+ "checksum BIGINT NOT NULL, "
+				+ "execution_ms BIGINT NOT NULL, "
+				+ "installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, "
+				+ "PRIMARY KEY (version))";
+		// @formatter:on
+
+		try(Statement stmt = conn.createStatement()){
+			stmt.execute(sql);
+		}
+	}
+
+	private Map<Integer, Long> fetchAppliedVersions(Connection conn) throws SQLException {
+		String sql = "SELECT version, checksum FROM " + VERSION_TABLE;
+
+		try(PreparedStatement stmt = conn.prepareStatement(sql)){
+			try(ResultSet rs = stmt.executeQuery()){
+				Map<Integer, Long> applied = new HashMap<>();
+
+				while(rs.next()) {
+					applied.put(rs.getInt("version"), rs.getLong("checksum"));
+				}
+
+				return applied;
+			}
+		}
+	}
+
+	private void recordVersion(Connection conn, int version, String description, long checksum,
+			long executionMs) throws SQLException {
+		String sql = "INSERT INTO " + VERSION_TABLE
+				+ " (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+
+		try(PreparedStatement stmt = conn.prepareStatement(sql)){
+			stmt.setInt(1, version);
+			stmt.setString(2, description);
+			stmt.setLong(3, checksum);
+			stmt.setLong(4, executionMs);
+			stmt.executeUpdate();
+		}
+	}
+
+	private void lock(Connection conn) throws SQLException {
+		try(PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")){
+			stmt.setString(1, LOCK_NAME);
+			stmt.setInt(2, LOCK_TIMEOUT_SEC);
+
+			try(ResultSet rs = stmt.executeQuery()){
+				if(!rs.next() || rs.getInt(1) != 1) {
+					throw new DbException("Timed out waiting for another process to finish "
+							+ "migrating the schema.");
+				}
+			}
+		}
+	}
+
+	private void unlock(Connection conn) throws SQLException {
+		try(PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")){
+			stmt.setString(1, LOCK_NAME);
+			stmt.executeQuery().close();
+		}
+	}
+
+	/**
+	 * Migration notices go to stderr, so they do not land in the middle of
+	 * the menu on stdout.
+	 */
+	private static void warn(String message) {
+		System.err.println("[schema] " + message);
+	}
+
+	static String readScript(int version) {
+		String resource = LOCATION + "V" + version + ".sql";
+
+		try(InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(resource)){
+			return Objects.isNull(in) ? null : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		catch(IOException e) {
+			throw new DbException("Unable to read " + resource, e);
+		}
+	}
+
+	/**
+	 * Splits a script on the semicolons that end its statements, leaving out
+	 * comment lines.
+	 */
+	static List<String> splitStatements(String script) {
+		List<String> statements = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+
+		for(String line : script.split("\\R")) {
+			String trimmed = line.trim();
+
+			if(trimmed.isEmpty() || trimmed.startsWith("--")) {
+				continue;
+			}
+
+			current.append(line).append('\n');
+
+			if(trimmed.endsWith(";")) {
+				statements.add(current.substring(0, current.lastIndexOf(";")).trim());
+				current.setLength(0);
+			}
+		}
+
+		if(!current.toString().isBlank()) {
+			statements.add(current.toString().trim());
+		}
+
+		return statements;
+	}
+
+	static String description(String script) {
+		String first = script.lines().findFirst().orElse("").trim();
+		return first.startsWith("--") ? first.substring(2).trim() : "";
+	}
+
+	static long checksum(String script) {
+		CRC32 crc = new CRC32();
+		//line endings differ between checkouts, so they do not count
+		crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+		return crc.getValue();
+	}
+
+}
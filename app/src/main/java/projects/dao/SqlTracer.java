@@ -0,0 +1,122 @@
+package projects.dao;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+class SqlTracer {
+
+	/**
+	 * Decides which statement executions get written to the SQL log and
+	 * writes them. The settings come from db.properties:
+	 *
+	 *   db.trace.slowQueryMs      executions at least this slow are "slow";
+	 *                             a negative value (the default) turns
+	 *                             tracing off
+	 *   db.trace.slowSampleRate   fraction of slow executions that are logged
+	 *   db.trace.sampleRate       fraction of all executions that are picked
+	 *                             before they run and always logged
+	 *   db.trace.logFile          where the log goes
+	 *
+	 * The check is one comparison per execution, and the statement text and
+	 * parameters are only formatted for executions that get logged. Only
+	 * the sampled executions pay for counting a query's rows.
+	 */
+
+	private static final DbConfig CONFIG = DbConnection.getConfig();
+
+	static final boolean ENABLED = CONFIG.getLong("db.trace.slowQueryMs", -1) >= 0;
+
+	private static final long SLOW_NANOS =
+			TimeUnit.MILLISECONDS.toNanos(CONFIG.getLong("db.trace.slowQueryMs", -1));
+	private static final double SLOW_SAMPLE_RATE =
+			Double.parseDouble(CONFIG.getString("db.trace.slowSampleRate", "1.0"));
+	private static final double SAMPLE_RATE =
+			Double.parseDouble(CONFIG.getString("db.trace.sampleRate", "0.0"));
+
+	//the log file is only opened once something is written to it
+	private static class LogHolder {
+		private static final Logger LOG = createLogger();
+	}
+
+	private SqlTracer() {
+	}
+
+	/**
+	 * Decides before a statement runs whether it is one of the executions
+	 * picked by the general sample rate.
+	 */
+	static boolean sample() {
+		return SAMPLE_RATE > 0
+				&& (SAMPLE_RATE >= 1 || ThreadLocalRandom.current().nextDouble() < SAMPLE_RATE);
+	}
+
+	/**
+	 * Logs the execution if it was sampled, or if it was slow (subject to the
+	 * slow sample rate). The parameters are formatted before this returns,
+	 * so the caller may go on changing the array.
+	 *
+	 * @param rows rows returned or changed, or -1 if not known
+	 */
+	static void executed(String sql, Object[] parameters, int batchSize, long nanos, long rows,
+			boolean sampled) {
+		boolean slow = nanos >= SLOW_NANOS;
+
+		if(!sampled && (!slow || SLOW_SAMPLE_RATE <= 0 || (SLOW_SAMPLE_RATE < 1
+				&& ThreadLocalRandom.current().nextDouble() >= SLOW_SAMPLE_RATE))) {
+			return;
+		}
+
+		StringBuilder entry = new StringBuilder(slow ? "SLOW " : "SAMPLE ")
+				.append(TimeUnit.NANOSECONDS.toMicros(nanos)).append("us");
+
+		if(rows >= 0) {
+			entry.append(" rows=").append(rows);
+		}
+
+		if(batchSize > 0) {
+			entry.append(" batch=").append(batchSize);
+		}
+
+		entry.append(" sql=[").append(Objects.isNull(sql) ? "?" : sql.replaceAll("\\s+", " ").trim())
+				.append(']');
+
+		if(Objects.nonNull(parameters) && parameters.length > 0) {
+			entry.append(" params=").append(Arrays.toString(parameters));
+		}
+
+		LogHolder.LOG.log(slow ? Level.WARNING : Level.INFO, entry.toString());
+	}
+
+	private static Logger createLogger() {
+		Logger logger = Logger.getLogger("projects.sql");
+		logger.setUseParentHandlers(false);
+
+		String file = CONFIG.getString("db.trace.logFile", "sql-trace.log");
+
+		try {
+			FileHandler handler = new FileHandler(file, true);
+			handler.setFormatter(new Formatter() {
+				@Override
+				public String format(LogRecord record) {
+					return String.format("%1$tF %1$tT.%1$tL %2$s %3$s%n", record.getMillis(),
+							Thread.currentThread().getName(), record.getMessage());
+				}
+			});
+			logger.addHandler(handler);
+		}
+		catch(IOException e) {
+			System.err.println("Unable to open the SQL trace log " + file + ": " + e);
+		}
+
+		return logger;
+	}
+
+}
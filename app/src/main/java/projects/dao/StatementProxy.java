@@ -0,0 +1,214 @@
+package projects.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Objects;
+
+import projects.metrics.LatencyHistogram;
+import projects.metrics.Metrics;
+
+class StatementProxy implements InvocationHandler {
+
+	/**
+	 * Wraps the statements handed out by pooled connections, when SQL tracing
+	 * or db.metrics.timeStatements is on; otherwise the pool hands out the
+	 * driver's statements as they are. With timing on, the time spent in
+	 * every execute call (executeQuery, executeUpdate, executeBatch, ...) is
+	 * recorded in the jdbc.execute timer.
+	 *
+	 * When SQL tracing is on (see SqlTracer), the statement also keeps its SQL
+	 * text and the parameters bound through setString, setInt, setNull and so
+	 * on (which is what DaoBase.setParameter calls), and reports each
+	 * execution with its time. Binding only stores a reference in an array.
+	 * The recorded parameters are dropped after each execution and on
+	 * clearParameters, so a statement run again reports only what was bound
+	 * for that run.
+	 *
+	 * getConnection returns the pooled connection the statement came from,
+	 * not the physical one, so closing it hands it back to the pool.
+	 *
+	 * A query's result set is handed back as it is, and the report covers the
+	 * execute call alone. Only for the executions SqlTracer samples is the
+	 * result set wrapped, so that its rows are counted as they are read and
+	 * the query is reported, with the time to fetch them, when it is closed.
+	 */
+
+	//created on first use, so the timer only shows up when timing is on
+	private static class TimerHolder {
+		private static final LatencyHistogram EXECUTE_TIMER = Metrics.timer("jdbc.execute");
+	}
+
+	private static final Object[] NO_PARAMETERS = new Object[0];
+
+	private final Statement stmt;
+	private final String sql;
+	private final Connection conn;
+	private final boolean timed;
+
+	private Object[] parameters = NO_PARAMETERS;
+	private int batchSize;
+
+	private StatementProxy(Statement stmt, String sql, Connection conn, boolean timed) {
+		this.stmt = stmt;
+		this.sql = sql;
+		this.conn = conn;
+		this.timed = timed;
+	}
+
+	/**
+	 * Wraps the statement in a proxy of the given interface (Statement,
+	 * PreparedStatement or CallableStatement). The sql is null for a plain
+	 * Statement, whose SQL arrives with each execute call. conn is the pooled
+	 * connection that created it. timed says whether execute calls are
+	 * recorded in the jdbc.execute timer.
+	 */
+	static Statement wrap(Statement stmt, Class<?> type, String sql, Connection conn,
+			boolean timed) {
+		return (Statement)Proxy.newProxyInstance(Statement.class.getClassLoader(),
+				new Class<?>[] {type}, new StatementProxy(stmt, sql, conn, timed));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+
+		if(name.equals("getConnection")) {
+			return conn;
+		}
+
+		if(SqlTracer.ENABLED && name.startsWith("set") && Objects.nonNull(args) && args.length >= 2
+				&& args[0] instanceof Integer) {
+			bind((Integer)args[0], name.equals("setNull") ? null : args[1]);
+		}
+		else if(SqlTracer.ENABLED && name.equals("addBatch") && Objects.isNull(args)) {
+			batchSize++;
+		}
+		else if(SqlTracer.ENABLED && name.equals("clearParameters")) {
+			parameters = NO_PARAMETERS;
+		}
+
+		boolean execute = name.startsWith("execute");
+		boolean sampled = execute && SqlTracer.ENABLED && SqlTracer.sample();
+		long start = execute ? System.nanoTime() : 0;
+		Object result;
+
+		try {
+			result = method.invoke(stmt, args);
+		}
+		catch(InvocationTargetException e) {
+			throw e.getCause();
+		}
+		finally {
+			if(execute && timed) {
+				TimerHolder.EXECUTE_TIMER.recordSince(start);
+			}
+		}
+
+		if(!execute || !SqlTracer.ENABLED) {
+			return result;
+		}
+
+		String text = Objects.nonNull(args) && args.length > 0 && args[0] instanceof String 
+				? (String)args[0] : sql;
+		int batch = batchSize;
+		Object[] bound = parameters;
+
+		if(name.equals("executeBatch")) {
+			batchSize = 0;
+		}
+
+		//the next execution reports only what is bound for it; the array is
+		//replaced rather than cleared, as a sampled result set still holds it
+		parameters = NO_PARAMETERS;
+
+		if(sampled && result instanceof ResultSet) {
+			return CountingResultSet.wrap((ResultSet)result, text, bound, start);
+		}
+
+		SqlTracer.executed(text, bound, batch, System.nanoTime() - start, rowCount(result),
+				sampled);
+
+		return result;
+	}
+
+	private void bind(int index, Object value) {
+		if(index > parameters.length) {
+			parameters = Arrays.copyOf(parameters, index);
+		}
+
+		parameters[index - 1] = value;
+	}
+
+	private static long rowCount(Object result) {
+		if(result instanceof Integer || result instanceof Long) {
+			return ((Number)result).longValue();
+		}
+
+		if(result instanceof int[]) {
+			return Arrays.stream((int[])result).filter(count -> count > 0).asLongStream().sum();
+		}
+
+		if(result instanceof long[]) {
+			return Arrays.stream((long[])result).filter(count -> count > 0).sum();
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Counts the rows read from a sampled query's result set and reports the
+	 * query to the tracer when the result set is closed.
+	 */
+	private static class CountingResultSet implements InvocationHandler {
+		private final ResultSet rs;
+		private final String sql;
+		private final Object[] parameters;
+		private final long start;
+
+		private long rows;
+		private boolean reported;
+
+		private CountingResultSet(ResultSet rs, String sql, Object[] parameters, long start) {
+			this.rs = rs;
+			this.sql = sql;
+			this.parameters = parameters;
+			this.start = start;
+		}
+
+		static ResultSet wrap(ResultSet rs, String sql, Object[] parameters, long start) {
+			return (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+					new Class<?>[] {ResultSet.class}, new CountingResultSet(rs, sql, parameters, start));
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Object result;
+
+			try {
+				result = method.invoke(rs, args);
+			}
+			catch(InvocationTargetException e) {
+				throw e.getCause();
+			}
+
+			String name = method.getName();
+
+			if(name.equals("next") && Boolean.TRUE.equals(result)) {
+				rows++;
+			}
+			else if(name.equals("close") && !reported) {
+				reported = true;
+				SqlTracer.executed(sql, parameters, 0, System.nanoTime() - start, rows, true);
+			}
+
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package projects.dao;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Transaction {
+
+	/**
+	 * One connection bound to the current thread by DbConnection.inTransaction.
+	 * While it is bound, every DbConnection.getConnection() call on the thread
+	 * gets a view of this connection that ignores setAutoCommit, commit and
+	 * close, so the DAO methods keep their own transaction code and simply join
+	 * the outer transaction. A rollback from a DAO method marks the whole
+	 * transaction rollback-only instead of ending it.
+	 */
+
+	private final Connection conn;
+	private final boolean readOnly;
+	private final Connection joined;
+	private final List<Runnable> afterCommit = new ArrayList<>();
+
+	private boolean rollbackOnly;
+
+	Transaction(Connection conn, boolean readOnly) {
+		this.conn = conn;
+		this.readOnly = readOnly;
+		this.joined = (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+					switch(method.getName()) {
+					case "close":
+					case "commit":
+					case "setAutoCommit":
+						return null;
+
+					case "rollback":
+						if(args == null) {
+							rollbackOnly = true;
+							return null;
+						}
+						break;
+
+					default:
+						break;
+					}
+
+					try {
+						return method.invoke(conn, args);
+					}
+					catch(InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	public boolean isRollbackOnly() {
+		return rollbackOnly;
+	}
+
+	public void setRollbackOnly() {
+		rollbackOnly = true;
+	}
+
+	/**
+	 * The connection DAO methods get while this transaction is bound.
+	 */
+	Connection join() {
+		return joined;
+	}
+
+	Connection getConnection() {
+		return conn;
+	}
+
+	void afterCommit(Runnable action) {
+		afterCommit.add(action);
+	}
+
+	List<Runnable> getAfterCommitActions() {
+		return afterCommit;
+	}
+
+}
@@ -0,0 +1,72 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Estimated and actual hours added up over a group of projects, such as all projects of one
+ * difficulty or in one category. Only projects with both figures are counted.
+ */
+public class EffortRollup {
+  private String groupName;
+  private Long projectCount;
+  private BigDecimal estimatedHours;
+  private BigDecimal actualHours;
+
+  public String getGroupName() {
+    return groupName;
+  }
+
+  public void setGroupName(String groupName) {
+    this.groupName = groupName;
+  }
+
+  public Long getProjectCount() {
+    return projectCount;
+  }
+
+  public void setProjectCount(Long projectCount) {
+    this.projectCount = projectCount;
+  }
+
+  public BigDecimal getEstimatedHours() {
+    return estimatedHours;
+  }
+
+  public void setEstimatedHours(BigDecimal estimatedHours) {
+    this.estimatedHours = estimatedHours;
+  }
+
+  public BigDecimal getActualHours() {
+    return actualHours;
+  }
+
+  public void setActualHours(BigDecimal actualHours) {
+    this.actualHours = actualHours;
+  }
+
+  /**
+   * Returns actual hours divided by estimated hours: 1.00 is spot on, 1.25 means the work took a
+   * quarter longer than estimated.
+   * 
+   * @return The ratio, or null if nothing was estimated.
+   */
+  public BigDecimal getActualToEstimate() {
+    if(Objects.isNull(estimatedHours) || Objects.isNull(actualHours)
+        || estimatedHours.signum() == 0) {
+      return null;
+    }
+
+    return actualHours.divide(estimatedHours, 2, RoundingMode.HALF_UP);
+  }
+
+  @Override
+  public String toString() {
+    return groupName + ": projects=" + projectCount + ", estimatedHours=" + estimatedHours
+        + ", actualHours=" + actualHours + ", actual/estimate=" + getActualToEstimate();
+  }
+}
@@ -0,0 +1,43 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. The next page is requested with the sort key of the
+ * last item on this page.
+ * 
+ * @param <T> The type of item on the page.
+ */
+public class Page<T> {
+  private final List<T> items;
+  private final boolean hasMore;
+
+  public Page(List<T> items, boolean hasMore) {
+    this.items = items;
+    this.hasMore = hasMore;
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  public boolean hasMore() {
+    return hasMore;
+  }
+
+  public boolean isEmpty() {
+    return items.isEmpty();
+  }
+
+  public T getLast() {
+    return items.isEmpty() ? null : items.get(items.size() - 1);
+  }
+
+  @Override
+  public String toString() {
+    return "items=" + items.size() + ", hasMore=" + hasMore;
+  }
+}
@@ -4,8 +4,12 @@
 package projects.entity;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * @author Promineo
@@ -23,6 +27,12 @@ public class Project {
   private List<Step> steps = new LinkedList<>();
   private List<Category> categories = new LinkedList<>();
 
+  /*
+   * Names of the detail fields whose setter changed their value. Rows read by DaoBase.extract
+   * fill the fields directly, so a freshly loaded project starts with no changes.
+   */
+  private Set<String> changedFields = new LinkedHashSet<>();
+
   public Integer getProjectId() {
     return projectId;
   }
@@ -36,6 +46,9 @@ public class Project {
   }
 
   public void setProjectName(String projectName) {
+    if(!sameValue(this.projectName, projectName)) {
+      changedFields.add("projectName");
+    }
     this.projectName = projectName;
   }
 
@@ -44,6 +57,9 @@ public class Project {
   }
 
   public void setEstimatedHours(BigDecimal estimatedHours) {
+    if(!sameValue(this.estimatedHours, estimatedHours)) {
+      changedFields.add("estimatedHours");
+    }
     this.estimatedHours = estimatedHours;
   }
 
@@ -52,6 +68,9 @@ public class Project {
   }
 
   public void setActualHours(BigDecimal actualHours) {
+    if(!sameValue(this.actualHours, actualHours)) {
+      changedFields.add("actualHours");
+    }
     this.actualHours = actualHours;
   }
 
@@ -60,6 +79,9 @@ public class Project {
   }
 
   public void setDifficulty(Integer difficulty) {
+    if(!sameValue(this.difficulty, difficulty)) {
+      changedFields.add("difficulty");
+    }
     this.difficulty = difficulty;
   }
 
@@ -68,9 +90,44 @@ public class Project {
   }
 
   public void setNotes(String notes) {
+    if(!sameValue(this.notes, notes)) {
+      changedFields.add("notes");
+    }
     this.notes = notes;
   }
 
+  /**
+   * Returns the names of the detail fields (projectName, estimatedHours, actualHours, difficulty,
+   * notes) set to a different value since the project was loaded or last saved.
+   * 
+   * @return The changed field names, in the order they were changed.
+   */
+  public Set<String> getChangedFields() {
+    return Collections.unmodifiableSet(changedFields);
+  }
+
+  public boolean isChanged() {
+    return !changedFields.isEmpty();
+  }
+
+  /**
+   * Forgets the changes, once they are saved.
+   */
+  public void clearChanges() {
+    changedFields.clear();
+  }
+
+  /*
+   * 4.5 and 4.50 are the same number of hours, so BigDecimals are compared by value.
+   */
+  private static boolean sameValue(Object current, Object value) {
+    if(current instanceof BigDecimal && value instanceof BigDecimal) {
+      return ((BigDecimal)current).compareTo((BigDecimal)value) == 0;
+    }
+
+    return Objects.equals(current, value);
+  }
+
   public List<Material> getMaterials() {
     return materials;
   }
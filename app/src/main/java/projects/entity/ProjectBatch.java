@@ -0,0 +1,177 @@
+/**
+ *
+ */
+package projects.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * The numbers of a run of projects held column by column in primitive arrays, for analytics that
+ * read many rows. Hours and costs are whole hundredths in a long (12.34 hours is 1234), the scale
+ * of their DECIMAL(7, 2) columns, so adding them up is exact without creating a BigDecimal per
+ * row.
+ *
+ * A batch has a fixed capacity and is meant to be cleared and filled again, so reading a whole
+ * table through one batch allocates nothing per row. A missing hours figure is {@link #NONE} and a
+ * missing difficulty is {@link #NO_DIFFICULTY}, so a real difficulty of 0 stays apart from it.
+ */
+public class ProjectBatch {
+  public static final long NONE = Long.MIN_VALUE;
+  public static final int NO_DIFFICULTY = Integer.MIN_VALUE;
+
+  private final int[] projectId;
+  private final int[] difficulty;
+  private final long[] estimatedHours;
+  private final long[] actualHours;
+  private final long[] materialCost;
+  private int size;
+
+  public ProjectBatch(int capacity) {
+    projectId = new int[capacity];
+    difficulty = new int[capacity];
+    estimatedHours = new long[capacity];
+    actualHours = new long[capacity];
+    materialCost = new long[capacity];
+  }
+
+  /**
+   * Appends a project. Hours and cost are in hundredths.
+   */
+  public void add(int projectId, int difficulty, long estimatedHours, long actualHours,
+      long materialCost) {
+    this.projectId[size] = projectId;
+    this.difficulty[size] = difficulty;
+    this.estimatedHours[size] = estimatedHours;
+    this.actualHours[size] = actualHours;
+    this.materialCost[size] = materialCost;
+    size++;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return projectId.length;
+  }
+
+  public boolean isFull() {
+    return size == projectId.length;
+  }
+
+  public int getProjectId(int row) {
+    return projectId[row];
+  }
+
+  public int getDifficulty(int row) {
+    return difficulty[row];
+  }
+
+  public long getEstimatedHours(int row) {
+    return estimatedHours[row];
+  }
+
+  public long getActualHours(int row) {
+    return actualHours[row];
+  }
+
+  public long getMaterialCost(int row) {
+    return materialCost[row];
+  }
+
+  /**
+   * @return The lowest difficulty in the batch, or {@link #NO_DIFFICULTY} if no project has one.
+   */
+  public int minDifficulty() {
+    int min = NO_DIFFICULTY;
+
+    for(int row = 0; row < size; row++) {
+      if(difficulty[row] != NO_DIFFICULTY && (min == NO_DIFFICULTY || difficulty[row] < min)) {
+        min = difficulty[row];
+      }
+    }
+
+    return min;
+  }
+
+  /**
+   * @return The highest difficulty in the batch, or {@link #NO_DIFFICULTY} if no project has one.
+   */
+  public int maxDifficulty() {
+    int max = NO_DIFFICULTY;
+
+    for(int row = 0; row < size; row++) {
+      max = Math.max(max, difficulty[row]);
+    }
+
+    return max;
+  }
+
+  /**
+   * @return The estimated hours of the projects that have them, in hundredths.
+   */
+  public long sumEstimatedHours() {
+    return sum(estimatedHours);
+  }
+
+  /**
+   * @return The actual hours of the projects that have them, in hundredths.
+   */
+  public long sumActualHours() {
+    return sum(actualHours);
+  }
+
+  /**
+   * @return The material cost of all projects, in hundredths.
+   */
+  public long sumMaterialCost() {
+    return sum(materialCost);
+  }
+
+  /**
+   * Adds the projects that have both estimated and actual hours to running totals by difficulty.
+   * Index 0 holds the projects with no difficulty and difficulty d is at index
+   * d - lowestDifficulty + 1, so each array needs a slot for every difficulty from
+   * lowestDifficulty to {@link #maxDifficulty()}. Calling this for every batch of a table gives the
+   * totals for the whole table.
+   */
+  public void addEffortByDifficulty(int lowestDifficulty, long[] projectCount,
+      long[] estimatedTotal, long[] actualTotal) {
+    for(int row = 0; row < size; row++) {
+      if(estimatedHours[row] != NONE && actualHours[row] != NONE) {
+        int group = difficulty[row] == NO_DIFFICULTY ? 0 : difficulty[row] - lowestDifficulty + 1;
+        projectCount[group]++;
+        estimatedTotal[group] += estimatedHours[row];
+        actualTotal[group] += actualHours[row];
+      }
+    }
+  }
+
+  /**
+   * Converts hundredths back to a decimal with two places, for showing a total.
+   */
+  public static BigDecimal toDecimal(long hundredths) {
+    return BigDecimal.valueOf(hundredths, 2);
+  }
+
+  private long sum(long[] column) {
+    long total = 0;
+
+    for(int row = 0; row < size; row++) {
+      if(column[row] != NONE) {
+        total += column[row];
+      }
+    }
+
+    return total;
+  }
+
+  @Override
+  public String toString() {
+    return "ProjectBatch [size=" + size + ", capacity=" + capacity() + "]";
+  }
+}
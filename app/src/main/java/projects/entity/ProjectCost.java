@@ -0,0 +1,55 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * The material cost of one project: how many materials it lists and what they cost in total
+ * (number required times cost, summed).
+ */
+public class ProjectCost {
+  private Integer projectId;
+  private String projectName;
+  private Long materialCount;
+  private BigDecimal totalCost;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public Long getMaterialCount() {
+    return materialCount;
+  }
+
+  public void setMaterialCount(Long materialCount) {
+    this.materialCount = materialCount;
+  }
+
+  public BigDecimal getTotalCost() {
+    return totalCost;
+  }
+
+  public void setTotalCost(BigDecimal totalCost) {
+    this.totalCost = totalCost;
+  }
+
+  @Override
+  public String toString() {
+    return projectId + ": " + projectName + ", materials=" + materialCount + ", totalCost="
+        + totalCost;
+  }
+}
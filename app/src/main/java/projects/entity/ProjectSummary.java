@@ -0,0 +1,34 @@
+/**
+ * 
+ */
+package projects.entity;
+
+/**
+ * The ID and name of a project, without its details or children. Used wherever projects are only
+ * listed.
+ */
+public class ProjectSummary {
+  private Integer projectId;
+  private String projectName;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  @Override
+  public String toString() {
+    return projectId + ": " + projectName;
+  }
+}
@@ -0,0 +1,128 @@
+package projects.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import projects.exception.DbException;
+
+public class CsvReader implements Closeable {
+
+	/**
+	 * Reads a CSV file one record at a time, so a file of any size is parsed
+	 * with only the current record in memory. Fields may be quoted with double
+	 * quotes; inside quotes a doubled quote ("") stands for one quote and
+	 * commas and line breaks are part of the field. Blank lines are skipped.
+	 */
+
+	private final BufferedReader reader;
+
+	//line the current record started on, for error messages
+	private long lineNumber;
+	private long nextLine = 1;
+
+	public CsvReader(Reader reader) {
+		this.reader = reader instanceof BufferedReader
+				? (BufferedReader)reader : new BufferedReader(reader, 64 * 1024);
+	}
+
+	/**
+	 * Returns the fields of the next record, or null at the end of the file.
+	 */
+	public List<String> readRecord() throws IOException {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		boolean sawAnything = false;
+
+		lineNumber = nextLine;
+
+		int ch;
+
+		while((ch = reader.read()) != -1) {
+			if(quoted) {
+				if(ch == '"') {
+					reader.mark(1);
+					int next = reader.read();
+
+					if(next == '"') {
+						field.append('"');
+					}
+					else {
+						quoted = false;
+						if(next != -1) {
+							reader.reset();
+						}
+					}
+				}
+				else {
+					if(ch == '\n') {
+						nextLine++;
+					}
+					field.append((char)ch);
+				}
+				continue;
+			}
+
+			switch(ch) {
+			case '"':
+				quoted = true;
+				sawAnything = true;
+				break;
+
+			case ',':
+				fields.add(field.toString());
+				field.setLength(0);
+				sawAnything = true;
+				break;
+
+			case '\r':
+				break;
+
+			case '\n':
+				nextLine++;
+
+				//blank lines between records are skipped
+				if(!sawAnything && field.length() == 0) {
+					lineNumber = nextLine;
+					break;
+				}
+
+				fields.add(field.toString());
+				return fields;
+
+			default:
+				field.append((char)ch);
+				sawAnything = true;
+			}
+		}
+
+		if(quoted) {
+			throw new DbException("Unterminated quoted field in the record starting on line "
+					+ lineNumber + ".");
+		}
+
+		if(!sawAnything && field.length() == 0) {
+			return null;
+		}
+
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * The line the last record read started on.
+	 */
+	public long getLineNumber() {
+		return lineNumber;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -0,0 +1,168 @@
+package projects.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+	/**
+	 * A lock-free histogram of durations in nanoseconds. Recording is one
+	 * atomic add into a bucket, so many threads can record at once without
+	 * waiting on each other.
+	 *
+	 * The buckets are log-linear: every power of two is split into 16 equal
+	 * buckets, so any percentile is accurate to within about 6%, from
+	 * nanoseconds up to days, in 1024 counters.
+	 */
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = 1024;
+
+	private final String name;
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public LatencyHistogram(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void record(long nanos) {
+		if(nanos < 0) {
+			nanos = 0;
+		}
+
+		buckets.incrementAndGet(bucketFor(nanos));
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+
+		long max = maxNanos.get();
+
+		while(nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+	}
+
+	/**
+	 * Records the time since startNanos, a value from System.nanoTime().
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * The duration (nanoseconds) that the given percentage of recordings were
+	 * at or below, reported as the top of its bucket.
+	 */
+	public long getPercentileNanos(double percentile) {
+		long total = count.get();
+
+		if(total == 0) {
+			return 0;
+		}
+
+		long target = Math.max(1, (long)Math.ceil(total * percentile / 100.0));
+		long seen = 0;
+
+		for(int idx = 0; idx < BUCKETS; idx++) {
+			seen += buckets.get(idx);
+
+			if(seen >= target) {
+				return Math.min(highestValueIn(idx), maxNanos.get());
+			}
+		}
+
+		return maxNanos.get();
+	}
+
+	@Override
+	public long getCount() {
+		return count.get();
+	}
+
+	@Override
+	public double getMeanMicros() {
+		long total = count.get();
+		return total == 0 ? 0 : totalNanos.get() / 1000.0 / total;
+	}
+
+	@Override
+	public long getP50Micros() {
+		return toMicros(getPercentileNanos(50));
+	}
+
+	@Override
+	public long getP90Micros() {
+		return toMicros(getPercentileNanos(90));
+	}
+
+	@Override
+	public long getP99Micros() {
+		return toMicros(getPercentileNanos(99));
+	}
+
+	@Override
+	public long getP999Micros() {
+		return toMicros(getPercentileNanos(99.9));
+	}
+
+	@Override
+	public long getMaxMicros() {
+		return toMicros(maxNanos.get());
+	}
+
+	/**
+	 * Clears the counts. Recordings made during the reset may be partly lost.
+	 */
+	@Override
+	public void reset() {
+		for(int idx = 0; idx < BUCKETS; idx++) {
+			buckets.set(idx, 0);
+		}
+
+		count.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-40s count=%d mean=%.0fus p50=%dus p99=%dus p999=%dus max=%dus", name,
+				getCount(), getMeanMicros(), getP50Micros(), getP99Micros(), getP999Micros(),
+				getMaxMicros());
+	}
+
+	private static long toMicros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+
+	static int bucketFor(long value) {
+		if(value < SUB_BUCKETS) {
+			return (int)value;
+		}
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int subBucket = (int)((value >>> shift) & (SUB_BUCKETS - 1));
+
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long highestValueIn(int bucket) {
+		if(bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long)(SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+		return lowest + (1L << shift) - 1;
+	}
+
+}
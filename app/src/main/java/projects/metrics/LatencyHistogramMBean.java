@@ -0,0 +1,25 @@
+package projects.metrics;
+
+public interface LatencyHistogramMBean {
+
+	/**
+	 * What JMX shows for one timed operation. Times are in microseconds.
+	 */
+
+	long getCount();
+
+	double getMeanMicros();
+
+	long getP50Micros();
+
+	long getP90Micros();
+
+	long getP99Micros();
+
+	long getP999Micros();
+
+	long getMaxMicros();
+
+	void reset();
+
+}
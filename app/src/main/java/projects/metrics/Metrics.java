@@ -0,0 +1,168 @@
+package projects.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import provided.util.DaoBase;
+
+public class Metrics implements MetricsMBean {
+
+	/**
+	 * Where the timings are kept. Each named operation gets one
+	 * LatencyHistogram, created on first use and registered with JMX as
+	 * projects:type=Timer,name=<name>. The names in use are:
+	 *
+	 *   daoCall.<method>  one call to a ProjectDao or ReportDao method,
+	 *                     timed by the caller (ProjectService, ReportService
+	 *                     or TimeTracker) around the call. It includes
+	 *                     borrowing the connection and any category
+	 *                     dictionary reload the call sets off, but not a
+	 *                     transaction scope around it. Cache hits never
+	 *                     reach the DAO, so they are not counted.
+	 *   service.<method>  a service operation made of several DAO calls
+	 *   pool.acquire      time to borrow a connection from the pool
+	 *   jdbc.execute      time in each statement execute call, only recorded
+	 *                     when db.metrics.timeStatements is on
+	 *
+	 * Rows mapped by DaoBase.extract and the connection pool counters are
+	 * exposed as gauges. startReporter prints a text snapshot on a schedule.
+	 */
+
+	private static final Metrics INSTANCE = new Metrics();
+
+	private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+	private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+	private ScheduledExecutorService reporter;
+
+	private Metrics() {
+		gauges.put("rows.mapped", DaoBase::getRowsMapped);
+		register("projects:type=Metrics", this);
+	}
+
+	public static Metrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * The histogram for the named operation.
+	 */
+	public static LatencyHistogram timer(String name) {
+		LatencyHistogram timer = INSTANCE.timers.get(name);
+
+		if(Objects.isNull(timer)) {
+			timer = INSTANCE.timers.computeIfAbsent(name, key -> {
+				LatencyHistogram created = new LatencyHistogram(key);
+				register("projects:type=Timer,name=" + key, created);
+				return created;
+			});
+		}
+
+		return timer;
+	}
+
+	/**
+	 * Runs the work and records how long it took under the given name.
+	 */
+	public static <T> T time(String name, Supplier<T> work) {
+		long start = System.nanoTime();
+
+		try {
+			return work.get();
+		}
+		finally {
+			timer(name).recordSince(start);
+		}
+	}
+
+	public static void time(String name, Runnable work) {
+		long start = System.nanoTime();
+
+		try {
+			work.run();
+		}
+		finally {
+			timer(name).recordSince(start);
+		}
+	}
+
+	/**
+	 * Adds a value that is read when a snapshot is taken, such as a pool size.
+	 */
+	public static void gauge(String name, LongSupplier value) {
+		INSTANCE.gauges.put(name, value);
+	}
+
+	/**
+	 * Registers an MBean, replacing any earlier one with the same name.
+	 */
+	public static void register(String objectName, Object mbean) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(objectName);
+
+			if(server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+
+			server.registerMBean(mbean, name);
+		}
+		catch(JMException e) {
+			System.err.println("Unable to register " + objectName + " with JMX: " + e);
+		}
+	}
+
+	/**
+	 * Prints getSnapshot() every intervalSec seconds on a daemon thread.
+	 */
+	public synchronized void startReporter(long intervalSec) {
+		if(Objects.nonNull(reporter) || intervalSec <= 0) {
+			return;
+		}
+
+		reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "projects-metrics-reporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		reporter.scheduleAtFixedRate(() -> System.out.println(getSnapshot()), intervalSec,
+				intervalSec, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public long getRowsMapped() {
+		return DaoBase.getRowsMapped();
+	}
+
+	/**
+	 * One line per timer and gauge, in name order.
+	 */
+	@Override
+	public String getSnapshot() {
+		StringBuilder snapshot = new StringBuilder("\nMetrics:");
+
+		new TreeMap<>(timers).values().forEach(timer -> snapshot.append("\n   ").append(timer));
+		new TreeMap<>(gauges).forEach((name, value) -> 
+				snapshot.append("\n   ").append(String.format("%-40s %d", name, value.getAsLong())));
+
+		return snapshot.toString();
+	}
+
+	@Override
+	public void resetAll() {
+		timers.values().forEach(LatencyHistogram::reset);
+	}
+
+}
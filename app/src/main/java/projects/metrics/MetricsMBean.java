@@ -0,0 +1,15 @@
+package projects.metrics;
+
+public interface MetricsMBean {
+
+	/**
+	 * Totals that are not per-operation timings.
+	 */
+
+	long getRowsMapped();
+
+	String getSnapshot();
+
+	void resetAll();
+
+}
@@ -0,0 +1,237 @@
+package projects.service;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import projects.dao.AggregateLoadMode;
+import projects.dao.DbConnection;
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Page;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+
+public class AsyncProjectService implements AutoCloseable {
+
+	/**
+	 * Non-blocking front for ProjectService, for callers that run many
+	 * requests at once. Each call runs on its own virtual thread and returns
+	 * a CompletableFuture, so thousands of calls in flight need only a few
+	 * platform threads.
+	 *
+	 * Calls wait on a semaphore holding maxConnections permits (by default
+	 * the connection pool's max size), which for a virtual thread costs no
+	 * platform thread. Each call takes one permit for every pooled connection
+	 * it can hold at the same time: three for a PARALLEL project load, five
+	 * for an export (one per streaming query and one for the category
+	 * dictionary to reread its table on a miss), one more for a read-only
+	 * transaction around a PARALLEL load, and one for everything else. So the
+	 * calls let through never need more connections than the pool has, and
+	 * the waiting happens here instead of in the pool's acquire timeout. A
+	 * call that needs more connections than maxConnections takes them all.
+	 *
+	 * Every ProjectService operation has a counterpart here, except the
+	 * ones that only read memory (getUnflushedHours, getCacheStats,
+	 * getAggregateLoadMode) and streamAllProjects, whose stream must be
+	 * consumed on the thread that holds its connection (use forEachProject).
+	 * Reach those through getProjectService().
+	 */
+
+	//ProjectDao.forEachProjectGraph streams four queries at once, and a
+	//category dictionary miss during the walk borrows one more
+	private static final int GRAPH_CONNECTIONS = 5;
+
+	private final ProjectService projectService;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Semaphore permits;
+	private final int maxConnections;
+
+	public AsyncProjectService() {
+		this(new ProjectService(), DbConnection.getConfig().getInt("db.async.maxConnections",
+				DbConnection.getConfig().getMaxPoolSize()));
+	}
+
+	public AsyncProjectService(ProjectService projectService, int maxConnections) {
+		this.projectService = projectService;
+		this.maxConnections = maxConnections;
+		this.permits = new Semaphore(maxConnections, true);
+	}
+
+	public CompletableFuture<Project> addProject(Project project) {
+		return submit(() -> projectService.addProject(project));
+	}
+
+	public CompletableFuture<List<Project>> addProjects(Collection<Project> projects) {
+		return submit(() -> projectService.addProjects(projects));
+	}
+
+	public CompletableFuture<List<Material>> addMaterials(Integer projectId, List<Material> materials) {
+		return submit(() -> projectService.addMaterials(projectId, materials));
+	}
+
+	public CompletableFuture<List<Step>> addSteps(Integer projectId, List<Step> steps) {
+		return submit(() -> projectService.addSteps(projectId, steps));
+	}
+
+	/**
+	 * Imports a CSV file on a worker thread; the progress callback runs there
+	 * too. See ProjectService.importProjects.
+	 */
+	public CompletableFuture<ProjectImporter.Progress> importProjects(Path file,
+			Consumer<ProjectImporter.Progress> progress) {
+		return submit(() -> projectService.importProjects(file, progress));
+	}
+
+	public CompletableFuture<Long> exportProjects(Path file) {
+		return submit(GRAPH_CONNECTIONS, () -> projectService.exportProjects(file));
+	}
+
+	public CompletableFuture<List<Project>> fetchAllProjects() {
+		return submit(projectService::fetchAllProjects);
+	}
+
+	public CompletableFuture<Page<Project>> fetchProjectPage(Project after, int pageSize) {
+		return submit(() -> projectService.fetchProjectPage(after, pageSize));
+	}
+
+	public CompletableFuture<Page<ProjectSummary>> fetchProjectSummaryPage(ProjectSummary after,
+			int pageSize) {
+		return submit(() -> projectService.fetchProjectSummaryPage(after, pageSize));
+	}
+
+	public CompletableFuture<List<Category>> fetchAllCategories() {
+		return submit(projectService::fetchAllCategories);
+	}
+
+	public CompletableFuture<Page<ProjectSummary>> fetchProjectsInCategory(Integer categoryId,
+			ProjectSummary after, int pageSize) {
+		return submit(() -> projectService.fetchProjectsInCategory(categoryId, after, pageSize));
+	}
+
+	public CompletableFuture<Page<ProjectSummary>> searchProjects(String words, int offset,
+			int pageSize) {
+		return submit(() -> projectService.searchProjects(words, offset, pageSize));
+	}
+
+	public CompletableFuture<List<ProjectSummary>> fetchAllProjectSummaries() {
+		return submit(projectService::fetchAllProjectSummaries);
+	}
+
+	/**
+	 * Passes each project to the callback on the worker thread; the future
+	 * completes once every project has been passed.
+	 */
+	public CompletableFuture<Void> forEachProject(Consumer<Project> callback) {
+		return run(() -> projectService.forEachProject(callback));
+	}
+
+	public CompletableFuture<Project> fetchProjectbyId(Integer projectId) {
+		return submit(loadConnections(), () -> projectService.fetchProjectbyId(projectId));
+	}
+
+	public CompletableFuture<Void> modifyProjectDetails(Project project) {
+		return run(() -> projectService.modifyProjectDetails(project));
+	}
+
+	public CompletableFuture<Project> updateProjectDetails(Project project) {
+		return submit(() -> projectService.updateProjectDetails(project));
+	}
+
+	/**
+	 * Logs time; the write to the database happens later in any case, see
+	 * ProjectService.recordTime.
+	 */
+	public CompletableFuture<Void> recordTime(Integer projectId, BigDecimal hours) {
+		return run(() -> projectService.recordTime(projectId, hours));
+	}
+
+	public CompletableFuture<Integer> flushTimeEntries() {
+		return submit(projectService::flushTimeEntries);
+	}
+
+	public CompletableFuture<Void> deleteProject(Integer projectId) {
+		return run(() -> projectService.deleteProject(projectId));
+	}
+
+	/**
+	 * Runs the work as one transaction on a single virtual thread, see
+	 * ProjectService.inTransaction.
+	 */
+	public <T> CompletableFuture<T> inTransaction(Function<ProjectService, T> work) {
+		return submit(() -> projectService.inTransaction(work));
+	}
+
+	/**
+	 * A PARALLEL load inside a read-only transaction borrows its own
+	 * connections next to the transaction's, so this takes permits for both.
+	 */
+	public <T> CompletableFuture<T> inReadOnlyTransaction(Function<ProjectService, T> work) {
+		return submit(1 + loadConnections(), () -> projectService.inReadOnlyTransaction(work));
+	}
+
+	/**
+	 * The blocking service this wraps.
+	 */
+	public ProjectService getProjectService() {
+		return projectService;
+	}
+
+	/**
+	 * Stops taking new work and waits for the calls in flight to finish.
+	 */
+	@Override
+	public void close() {
+		executor.close();
+	}
+
+	private CompletableFuture<Void> run(Runnable work) {
+		return submit(() -> {
+			work.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Connections a project load holds at once, see ProjectDao.fetchProjectId.
+	 */
+	private int loadConnections() {
+		return projectService.getAggregateLoadMode() == AggregateLoadMode.PARALLEL ? 3 : 1;
+	}
+
+	private <T> CompletableFuture<T> submit(Supplier<T> work) {
+		return submit(1, work);
+	}
+
+	private <T> CompletableFuture<T> submit(int connections, Supplier<T> work) {
+		int needed = Math.min(connections, maxConnections);
+
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				permits.acquire(needed);
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CompletionException(e);
+			}
+
+			try {
+				return work.get();
+			}
+			finally {
+				permits.release(needed);
+			}
+		}, executor);
+	}
+
+}
@@ -0,0 +1,297 @@
+package projects.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+public class ProjectCache {
+
+	/**
+	 * A size- and time-bounded LRU cache of full Project aggregates, keyed by
+	 * project ID. Entries older than ttlMs are treated as missing, and the least
+	 * recently used entry is dropped when the cache is full.
+	 *
+	 * Projects are copied on the way in and on the way out, so a caller that
+	 * changes a returned Project cannot change what other callers see.
+	 *
+	 * A load that overlaps a write to the same project could bring back the
+	 * old row after the write invalidated it. So a load leaves a marker under
+	 * its project ID, a write to that project removes it, and the loaded
+	 * project is only stored if its marker is still there. Writes to other
+	 * projects do not get in the way.
+	 */
+
+	private static final Set<String> ALL_DETAILS =
+			Set.of("projectName", "estimatedHours", "actualHours", "difficulty", "notes");
+
+	private final int maxSize;
+	private final long ttlMs;
+	private final Map<Integer, Entry> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	//the load in flight for each project ID, removed by a write to it
+	private final Map<Integer, Object> loading = new HashMap<>();
+
+	public ProjectCache(int maxSize, long ttlMs) {
+		this.maxSize = maxSize;
+		this.ttlMs = ttlMs;
+
+		//access order makes iteration run from least to most recently used
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns the cached project, or loads it with the loader and caches it.
+	 */
+	public Optional<Project> get(Integer projectId, Function<Integer, Optional<Project>> loader) {
+		if(maxSize > 0) {
+			synchronized(this) {
+				Entry entry = entries.get(projectId);
+
+				if(Objects.nonNull(entry)) {
+					if(!entry.isExpired()) {
+						hits.incrementAndGet();
+						return Optional.of(copy(entry.project));
+					}
+
+					entries.remove(projectId);
+					evictions.incrementAndGet();
+				}
+			}
+		}
+
+		misses.incrementAndGet();
+
+		if(maxSize <= 0) {
+			return loader.apply(projectId);
+		}
+
+		Object marker = new Object();
+
+		synchronized(this) {
+			loading.put(projectId, marker);
+		}
+
+		try {
+			Optional<Project> loaded = loader.apply(projectId);
+
+			loaded.ifPresent(project -> putIfUnchanged(project, marker));
+
+			return loaded;
+		}
+		finally {
+			synchronized(this) {
+				loading.remove(projectId, marker);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the project's own columns in a cached entry after an update. The
+	 * child lists are not touched by an update, so they stay as they are.
+	 */
+	public void updateDetails(Project project) {
+		updateDetails(project, ALL_DETAILS);
+	}
+
+	/**
+	 * Replaces only the named columns (field names as in
+	 * Project.getChangedFields) after an update that wrote just those. The
+	 * other columns may have changed in the database since the caller read
+	 * them, so they are left as cached.
+	 */
+	public synchronized void updateDetails(Project project, Set<String> fields) {
+		loading.remove(project.getProjectId());
+
+		Entry entry = entries.get(project.getProjectId());
+
+		if(Objects.isNull(entry)) {
+			return;
+		}
+
+		Project cached = entry.project;
+
+		for(String field : fields) {
+			switch(field) {
+			case "projectName":
+				cached.setProjectName(project.getProjectName());
+				break;
+			case "estimatedHours":
+				cached.setEstimatedHours(project.getEstimatedHours());
+				break;
+			case "actualHours":
+				cached.setActualHours(project.getActualHours());
+				break;
+			case "difficulty":
+				cached.setDifficulty(project.getDifficulty());
+				break;
+			case "notes":
+				cached.setNotes(project.getNotes());
+				break;
+			default:
+				//not a column the cache patches; drop the entry to be safe
+				entries.remove(project.getProjectId());
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Drops a project, for example after it was deleted or its children changed.
+	 */
+	public synchronized void invalidate(Integer projectId) {
+		loading.remove(projectId);
+		entries.remove(projectId);
+	}
+
+	public synchronized void invalidateAll() {
+		loading.clear();
+		entries.clear();
+	}
+
+	public synchronized Stats getStats() {
+		return new Stats(hits.get(), misses.get(), evictions.get(), entries.size(), maxSize);
+	}
+
+	private synchronized void putIfUnchanged(Project project, Object marker) {
+		//a write, or a later load of the same project, replaced the marker
+		if(loading.get(project.getProjectId()) != marker) {
+			return;
+		}
+
+		entries.put(project.getProjectId(), new Entry(copy(project), System.currentTimeMillis() + ttlMs));
+
+		Iterator<Entry> lru = entries.values().iterator();
+
+		while(entries.size() > maxSize && lru.hasNext()) {
+			lru.next();
+			lru.remove();
+			evictions.incrementAndGet();
+		}
+	}
+
+	/**
+	 * A deep copy of the project, children included.
+	 */
+	static Project copy(Project source) {
+		Project project = new Project();
+
+		project.setProjectId(source.getProjectId());
+		project.setProjectName(source.getProjectName());
+		project.setEstimatedHours(source.getEstimatedHours());
+		project.setActualHours(source.getActualHours());
+		project.setDifficulty(source.getDifficulty());
+		project.setNotes(source.getNotes());
+
+		for(Material material : source.getMaterials()) {
+			Material copy = new Material();
+			copy.setMaterialId(material.getMaterialId());
+			copy.setProjectId(material.getProjectId());
+			copy.setMaterialName(material.getMaterialName());
+			copy.setNumRequired(material.getNumRequired());
+			copy.setCost(material.getCost());
+			project.getMaterials().add(copy);
+		}
+
+		for(Step step : source.getSteps()) {
+			Step copy = new Step();
+			copy.setStepId(step.getStepId());
+			copy.setProjectId(step.getProjectId());
+			copy.setStepText(step.getStepText());
+			copy.setStepOrder(step.getStepOrder());
+			project.getSteps().add(copy);
+		}
+
+		for(Category category : source.getCategories()) {
+			Category copy = new Category();
+			copy.setCategoryId(category.getCategoryId());
+			copy.setCategoryName(category.getCategoryName());
+			project.getCategories().add(copy);
+		}
+
+		//the setters above mark every field changed; a copy starts clean
+		project.clearChanges();
+
+		return project;
+	}
+
+	private class Entry {
+		private final Project project;
+		private final long expiresAt;
+
+		private Entry(Project project, long expiresAt) {
+			this.project = project;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired() {
+			return ttlMs > 0 && System.currentTimeMillis() > expiresAt;
+		}
+	}
+
+	/**
+	 * A snapshot of the cache counters.
+	 */
+	public static class Stats {
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final int size;
+		private final int maxSize;
+
+		private Stats(long hits, long misses, long evictions, int size, int maxSize) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.size = size;
+			this.maxSize = maxSize;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public long getEvictions() {
+			return evictions;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		public double getHitRate() {
+			long requests = hits + misses;
+			return requests == 0 ? 0.0 : (double)hits / requests;
+		}
+
+		@Override
+		public String toString() {
+			return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+					+ ", size=" + size + "/" + maxSize
+					+ String.format(", hitRate=%.1f%%", getHitRate() * 100);
+		}
+	}
+
+}
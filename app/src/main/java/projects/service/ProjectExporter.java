@@ -0,0 +1,126 @@
+package projects.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import projects.dao.ProjectDao;
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+import projects.exception.DbException;
+import projects.io.CsvWriter;
+
+public class ProjectExporter {
+
+	/**
+	 * Writes every project with its materials, steps and categories to a CSV
+	 * file in the layout ProjectImporter reads, keyed by project ID. The
+	 * projects come from ProjectDao.forEachProjectGraph, so the export takes
+	 * four queries and holds one project in memory at a time.
+	 *
+	 * The file is written under a temporary name and moved into place at the
+	 * end, so a failed export never leaves a half-written dump behind.
+	 */
+
+	private final ProjectDao projectDao;
+
+	private long projects;
+	private long rows;
+
+	public ProjectExporter(ProjectDao projectDao) {
+		this.projectDao = projectDao;
+	}
+
+	/**
+	 * Exports the whole database to the file and returns the number of
+	 * projects written.
+	 */
+	public long exportFile(Path file) {
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+		projects = 0;
+		rows = 0;
+
+		try {
+			try(CsvWriter csv = new CsvWriter(FileChannel.open(tmp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))){
+				csv.writeRecord("type", "key", "name", "estimated_hours", "actual_hours", "difficulty",
+						"notes");
+
+				projectDao.forEachProjectGraph(project -> write(csv, project));
+			}
+			catch(IOException e) {
+				throw new DbException("Cannot write the export file " + tmp, e);
+			}
+			catch(UncheckedIOException e) {
+				throw new DbException("Cannot write the export file " + tmp, e.getCause());
+			}
+
+			try {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(IOException e) {
+				throw new DbException("Cannot move the export file into place at " + file, e);
+			}
+		}
+		catch(RuntimeException e) {
+			//don't leave a half written file behind
+			deleteTmp(tmp, e);
+			throw e;
+		}
+
+		return projects;
+	}
+
+	private static void deleteTmp(Path tmp, RuntimeException failure) {
+		try {
+			Files.deleteIfExists(tmp);
+		}
+		catch(IOException e) {
+			failure.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Project, material, step and category rows written by the last export.
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	private void write(CsvWriter csv, Project project) {
+		Integer key = project.getProjectId();
+
+		try {
+			csv.writeRecord("project", key, project.getProjectName(), project.getEstimatedHours(),
+					project.getActualHours(), project.getDifficulty(), project.getNotes());
+
+			for(Material material : project.getMaterials()) {
+				csv.writeRecord("material", key, material.getMaterialName(),
+						material.getNumRequired(), material.getCost());
+			}
+
+			for(Step step : project.getSteps()) {
+				csv.writeRecord("step", key, step.getStepText(), step.getStepOrder());
+			}
+
+			for(Category category : project.getCategories()) {
+				csv.writeRecord("category", key, category.getCategoryName());
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		projects++;
+		rows += 1 + project.getMaterials().size() + project.getSteps().size()
+				+ project.getCategories().size();
+	}
+
+}
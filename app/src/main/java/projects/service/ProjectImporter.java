@@ -0,0 +1,431 @@
+package projects.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import projects.dao.DbConnection;
+import projects.dao.ProjectDao;
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+import projects.exception.DbException;
+import projects.io.CsvReader;
+
+public class ProjectImporter {
+
+	/**
+	 * Loads full project graphs (projects with their materials, steps and
+	 * categories) from a CSV file. The file is read one record at a time and
+	 * written in batches of about batchRows rows, each batch in its own
+	 * transaction, so memory use does not grow with the size of the file.
+	 *
+	 * Each record starts with its type and a key that ties the children to
+	 * their project. The children follow their project, for example:
+	 *
+	 * type,key,name,estimated_hours,actual_hours,difficulty,notes
+	 * project,p1,Hang a door,4,3,3,Use the old hinges
+	 * material,p1,Door hanger,4,12.50
+	 * step,p1,Align the hangers,1
+	 * category,p1,Doors and Windows
+	 *
+	 * material records are name, number required and cost; step records are
+	 * the step text and an optional step order; category records name an
+	 * existing category or a new one, which is created. The header row is
+	 * optional and recognized by its first field, "type".
+	 *
+	 * After every batch commits, the number of records done so far is written
+	 * to <file>.checkpoint. If a batch fails, running the import again skips
+	 * those records and carries on from the failed batch. The checkpoint is
+	 * deleted once the whole file is in. A crash between a commit and the
+	 * checkpoint write would load that one batch twice.
+	 */
+
+	private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+	private final ProjectDao projectDao;
+	private final int batchRows;
+
+	//category IDs by name; only committed categories are in here
+	private final Map<String, Integer> categoryIds = new HashMap<>();
+
+	public ProjectImporter(ProjectDao projectDao, int batchRows) {
+		if(batchRows < 1) {
+			throw new DbException("The import batch size must be at least 1.");
+		}
+
+		this.projectDao = projectDao;
+		this.batchRows = batchRows;
+	}
+
+	/**
+	 * Imports the file, passing the running totals to the progress callback
+	 * after every batch. Returns the totals for the whole run.
+	 */
+	public Progress importFile(Path file, Consumer<Progress> progress) {
+		Path checkpoint = file.resolveSibling(file.getFileName() + CHECKPOINT_SUFFIX);
+		long skip = readCheckpoint(checkpoint);
+
+		for(Category category : projectDao.fetchAllCategories()) {
+			categoryIds.put(category.getCategoryName(), category.getCategoryId());
+		}
+
+		try(Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+				CsvReader csv = new CsvReader(in)){
+			Batch batch = new Batch(skip, System.nanoTime(), progress, checkpoint);
+			List<String> record;
+			long seen = 0;
+
+			while(Objects.nonNull(record = csv.readRecord())) {
+				if(seen == 0 && isHeader(record)) {
+					continue;
+				}
+
+				//records from an earlier, partly finished run are already in
+				if(++seen <= skip) {
+					continue;
+				}
+
+				try {
+					batch.add(record);
+				}
+				catch(RuntimeException e) {
+					throw new DbException("Line " + csv.getLineNumber() + ": " + e.getMessage(), e);
+				}
+			}
+
+			batch.flush();
+			Files.deleteIfExists(checkpoint);
+
+			return batch.progress();
+		}
+		catch(IOException e) {
+			throw new DbException(e);
+		}
+	}
+
+	private static boolean isHeader(List<String> record) {
+		return "type".equalsIgnoreCase(record.get(0).trim());
+	}
+
+	private static long readCheckpoint(Path checkpoint) {
+		try {
+			return Files.exists(checkpoint)
+					? Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim())
+					: 0;
+		}
+		catch(IOException | NumberFormatException e) {
+			throw new DbException("Cannot read the import checkpoint " + checkpoint, e);
+		}
+	}
+
+	private static void writeCheckpoint(Path checkpoint, long records) {
+		Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+
+		try {
+			Files.writeString(tmp, Long.toString(records), StandardCharsets.UTF_8);
+			Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch(IOException e) {
+			throw new DbException("Cannot write the import checkpoint " + checkpoint, e);
+		}
+	}
+
+	/**
+	 * The projects read since the last commit.
+	 */
+	private class Batch {
+		private final List<Project> projects = new ArrayList<>();
+		private final long startNanos;
+		private final Consumer<Progress> progress;
+		private final Path checkpoint;
+
+		private Project current;
+		private String currentKey;
+
+		//records of the file added so far, including those skipped on resume
+		private long records;
+		private long committedRecords;
+		private int pendingRows;
+
+		//totals for this run only
+		private long importedProjects;
+		private long importedRows;
+
+		private Batch(long committedRecords, long startNanos, Consumer<Progress> progress,
+				Path checkpoint) {
+			this.records = committedRecords;
+			this.committedRecords = committedRecords;
+			this.startNanos = startNanos;
+			this.progress = progress;
+			this.checkpoint = checkpoint;
+		}
+
+		private void add(List<String> record) {
+			String type = field(record, 0).trim().toLowerCase();
+			String key = field(record, 1).trim();
+
+			if(type.equals("project")) {
+				//only cut a batch between projects, so a project is never half in
+				if(pendingRows >= batchRows) {
+					flush();
+				}
+
+				current = new Project();
+				currentKey = key;
+
+				current.setProjectName(required(record, 2, "project name"));
+				current.setEstimatedHours(decimal(record, 3));
+				current.setActualHours(decimal(record, 4));
+				current.setDifficulty(integer(record, 5));
+				current.setNotes(text(record, 6));
+
+				projects.add(current);
+				pendingRows++;
+				records++;
+				return;
+			}
+
+			if(Objects.isNull(current) || !currentKey.equals(key)) {
+				throw new DbException("The " + type + " record for key '" + key
+						+ "' does not follow its project record.");
+			}
+
+			switch(type) {
+			case "material":
+				Material material = new Material();
+				material.setMaterialName(required(record, 2, "material name"));
+				material.setNumRequired(integer(record, 3));
+				material.setCost(decimal(record, 4));
+				current.getMaterials().add(material);
+				break;
+
+			case "step":
+				Step step = new Step();
+				step.setStepText(required(record, 2, "step text"));
+
+				Integer order = integer(record, 3);
+				step.setStepOrder(Objects.isNull(order) ? current.getSteps().size() + 1 : order);
+				current.getSteps().add(step);
+				break;
+
+			case "category":
+				String name = required(record, 2, "category name");
+
+				//a project is in a category once; a repeat would break the unique key
+				if(hasCategory(current, name)) {
+					records++;
+					return;
+				}
+
+				Category category = new Category();
+				category.setCategoryName(name);
+				current.getCategories().add(category);
+				break;
+
+			default:
+				throw new DbException("Unknown record type '" + type + "'.");
+			}
+
+			pendingRows++;
+			records++;
+		}
+
+		private void flush() {
+			if(projects.isEmpty()) {
+				return;
+			}
+
+			Map<String, Integer> newCategories = DbConnection.inTransaction(false, this::insertBatch);
+
+			//only now are the new category IDs real
+			categoryIds.putAll(newCategories);
+
+			committedRecords = records;
+			writeCheckpoint(checkpoint, committedRecords);
+
+			importedProjects += projects.size();
+			importedRows += pendingRows;
+
+			projects.clear();
+			pendingRows = 0;
+
+			progress.accept(progress());
+		}
+
+		private Map<String, Integer> insertBatch() {
+			Map<String, Integer> newCategories = createMissingCategories();
+
+			projectDao.insertProjects(projects);
+
+			List<Material> materials = new ArrayList<>();
+			List<Step> steps = new ArrayList<>();
+
+			for(Project project : projects) {
+				for(Material material : project.getMaterials()) {
+					material.setProjectId(project.getProjectId());
+					materials.add(material);
+				}
+
+				for(Step step : project.getSteps()) {
+					step.setProjectId(project.getProjectId());
+					steps.add(step);
+				}
+
+				for(Category category : project.getCategories()) {
+					String name = category.getCategoryName();
+					Integer id = categoryIds.get(name);
+					category.setCategoryId(Objects.nonNull(id) ? id : newCategories.get(name));
+				}
+			}
+
+			projectDao.insertMaterials(materials);
+			projectDao.insertSteps(steps);
+			projectDao.insertProjectCategories(projects);
+
+			return newCategories;
+		}
+
+		private Map<String, Integer> createMissingCategories() {
+			Map<String, Category> missing = new LinkedHashMap<>();
+
+			for(Project project : projects) {
+				for(Category category : project.getCategories()) {
+					String name = category.getCategoryName();
+
+					if(!categoryIds.containsKey(name) && !missing.containsKey(name)) {
+						Category created = new Category();
+						created.setCategoryName(name);
+						missing.put(name, created);
+					}
+				}
+			}
+
+			Map<String, Integer> ids = new HashMap<>();
+
+			for(Category created : projectDao.insertCategories(new ArrayList<>(missing.values()))) {
+				ids.put(created.getCategoryName(), created.getCategoryId());
+			}
+
+			return ids;
+		}
+
+		private Progress progress() {
+			return new Progress(importedProjects, importedRows, committedRecords,
+					System.nanoTime() - startNanos);
+		}
+	}
+
+	private static boolean hasCategory(Project project, String categoryName) {
+		for(Category category : project.getCategories()) {
+			if(category.getCategoryName().equals(categoryName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	//values are kept as written; only the type, key and numbers are trimmed
+	private static String field(List<String> record, int index) {
+		return index < record.size() ? record.get(index) : "";
+	}
+
+	private static String text(List<String> record, int index) {
+		String value = field(record, index);
+		return value.isBlank() ? null : value;
+	}
+
+	private static String required(List<String> record, int index, String name) {
+		String value = text(record, index);
+
+		if(Objects.isNull(value)) {
+			throw new DbException("The " + name + " is missing.");
+		}
+		return value;
+	}
+
+	private static BigDecimal decimal(List<String> record, int index) {
+		String value = text(record, index);
+
+		try {
+			return Objects.isNull(value) ? null : new BigDecimal(value.trim()).setScale(2);
+		}
+		catch(NumberFormatException | ArithmeticException e) {
+			throw new DbException("'" + value + "' is not a valid decimal number.");
+		}
+	}
+
+	private static Integer integer(List<String> record, int index) {
+		String value = text(record, index);
+
+		try {
+			return Objects.isNull(value) ? null : Integer.valueOf(value.trim());
+		}
+		catch(NumberFormatException e) {
+			throw new DbException("'" + value + "' is not a valid number.");
+		}
+	}
+
+	/**
+	 * Running totals of an import.
+	 */
+	public static class Progress {
+		private final long projects;
+		private final long rows;
+		private final long records;
+		private final long elapsedNanos;
+
+		private Progress(long projects, long rows, long records, long elapsedNanos) {
+			this.projects = projects;
+			this.rows = rows;
+			this.records = records;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * Projects imported by this run.
+		 */
+		public long getProjects() {
+			return projects;
+		}
+
+		/**
+		 * Project, material, step and category rows imported by this run.
+		 */
+		public long getRows() {
+			return rows;
+		}
+
+		/**
+		 * Records of the file that are in the database, including those
+		 * from an earlier run that was resumed.
+		 */
+		public long getRecords() {
+			return records;
+		}
+
+		public double getRowsPerSecond() {
+			return elapsedNanos == 0 ? 0.0 : rows * 1_000_000_000.0 / elapsedNanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%,d projects, %,d rows in %.1f s (%,.0f rows/sec)",
+					projects, rows, elapsedNanos / 1e9, getRowsPerSecond());
+		}
+	}
+
+}
@@ -0,0 +1,515 @@
+package projects.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import projects.dao.AggregateLoadMode;
+import projects.dao.CategoryDictionary;
+import projects.dao.DbConnection;
+import projects.dao.ProjectDao;
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Page;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+import projects.exception.DbException;
+import projects.metrics.Metrics;
+
+public class ProjectService {
+	
+	//This is my service layer that applies business rules. 
+	
+	//initializes an object of ProjectDao class. Every call to it is timed
+	//under daoCall.<method name>, see Metrics.
+	private ProjectDao projectDao = new ProjectDao();
+	
+	//recently fetched projects with their children, see ProjectCache
+	private ProjectCache projectCache = new ProjectCache(
+			DbConnection.getConfig().getInt("db.cache.maxSize", 1000),
+			DbConnection.getConfig().getLong("db.cache.ttlMs", 60000));
+	
+	//in-memory keyword index, kept only when db.search.inMemory is true; 
+	//otherwise searches go to MySQL's FULLTEXT indexes
+	private volatile SearchIndex searchIndex = 
+			DbConnection.getConfig().getBoolean("db.search.inMemory", false) ? buildSearchIndex() : null;
+	
+	//time logged with recordTime, written to actual_hours in batches by the
+	//one tracker all services share; it drops what it writes from our cache
+	private TimeTracker timeTracker = TimeTracker.getInstance();
+	
+	
+	public ProjectService() {
+		timeTracker.invalidateOnFlush(projectCache);
+	}
+	
+
+	/**
+	 * This method is called by method createProject() of the I/O layer
+	 * which creates a project that is then sent to the initialized 
+	 * ProjectDao class object using the addProject() method below. 
+	 */
+	
+	public Project addProject(Project project) {
+		Project saved = Metrics.time("daoCall.insertProject", () -> projectDao.insertProject(project));
+		
+		indexDetails(saved);
+		
+		return saved;
+	}
+
+
+	/**
+	 * Adds many projects at once, in one transaction. Each project
+	 * comes back with the project ID assigned by MySQL.
+	 */
+	public List<Project> addProjects(Collection<Project> projects) {
+		List<Project> saved = Metrics.time("daoCall.insertProjects", 
+				() -> projectDao.insertProjects(projects));
+		
+		saved.forEach(this::indexDetails);
+		
+		return saved;
+	}
+
+
+	/**
+	 * Adds materials to a project in one batch. The cached copy of the
+	 * project, if any, is dropped since its material list changed.
+	 */
+	public List<Material> addMaterials(Integer projectId, List<Material> materials) {
+		List<Material> saved = Metrics.time("daoCall.insertMaterials", 
+				() -> projectDao.insertMaterials(projectId, materials));
+		
+		projectCache.invalidate(projectId);
+		DbConnection.afterCommit(() -> projectCache.invalidate(projectId));
+		
+		return saved;
+	}
+
+
+	/**
+	 * Adds steps to the end of a project in one batch, numbering them after
+	 * the project's existing steps.
+	 */
+	public List<Step> addSteps(Integer projectId, List<Step> steps) {
+		List<Step> saved = Metrics.time("daoCall.insertSteps", 
+				() -> projectDao.insertSteps(projectId, steps));
+		
+		projectCache.invalidate(projectId);
+		DbConnection.afterCommit(() -> projectCache.invalidate(projectId));
+		
+		SearchIndex index = searchIndex;
+		
+		if(Objects.nonNull(index)) {
+			DbConnection.afterCommit(() -> index.putSteps(projectId, saved));
+		}
+		
+		return saved;
+	}
+
+
+	/**
+	 * Bulk loads projects with their materials, steps and categories from a
+	 * CSV file, in batches of db.import.batchRows rows. The progress callback
+	 * gets the running totals after each batch. See ProjectImporter for the
+	 * file layout and how a failed import is resumed.
+	 */
+	public ProjectImporter.Progress importProjects(Path file, 
+			Consumer<ProjectImporter.Progress> progress) {
+		ProjectImporter importer = new ProjectImporter(projectDao, 
+				DbConnection.getConfig().getInt("db.import.batchRows", 5000));
+		
+		ProjectImporter.Progress total = Metrics.time("service.importProjects", 
+				() -> importer.importFile(file, progress));
+		
+		//the import writes through the DAO directly, so the index is built again
+		if(Objects.nonNull(searchIndex)) {
+			searchIndex = buildSearchIndex();
+		}
+		
+		return total;
+	}
+
+
+	/**
+	 * Writes every project with its children to a CSV file that
+	 * importProjects can read back, in four streaming queries. Returns the
+	 * number of projects written. See ProjectExporter.
+	 */
+	public long exportProjects(Path file) {
+		ProjectExporter exporter = new ProjectExporter(projectDao);
+		
+		return Metrics.time("service.exportProjects", () -> exporter.exportFile(file));
+	}
+
+
+	/**
+	 * Returns the results of the method call to the DAO class.
+	 * @return
+	 */
+	public List<Project> fetchAllProjects() {
+		return Metrics.time("daoCall.fetchAllProjects", projectDao::fetchAllProjects);
+	}
+
+
+	/**
+	 * Returns the first page of projects in name order.
+	 */
+	public Page<Project> fetchProjectPage(int pageSize) {
+		return fetchProjectPage(null, pageSize);
+	}
+
+
+	/**
+	 * Returns the page of projects that follows the given project in name order.
+	 * Passing the last project of the previous page gives the next page; passing
+	 * null gives the first page.
+	 */
+	public Page<Project> fetchProjectPage(Project after, int pageSize) {
+		if(pageSize < 1) {
+			throw new DbException("The page size must be at least 1.");
+		}
+		
+		return Metrics.time("daoCall.fetchProjectPage", () -> Objects.isNull(after) 
+				? projectDao.fetchProjectPage(null, null, pageSize)
+				: projectDao.fetchProjectPage(after.getProjectName(), after.getProjectId(), pageSize));
+	}
+
+
+	/**
+	 * Returns the first page of project IDs and names, in name order.
+	 */
+	public Page<ProjectSummary> fetchProjectSummaryPage(int pageSize) {
+		return fetchProjectSummaryPage(null, pageSize);
+	}
+
+
+	/**
+	 * Returns the page of project IDs and names that follows the given summary.
+	 * Passing null gives the first page.
+	 */
+	public Page<ProjectSummary> fetchProjectSummaryPage(ProjectSummary after, int pageSize) {
+		if(pageSize < 1) {
+			throw new DbException("The page size must be at least 1.");
+		}
+		
+		return Metrics.time("daoCall.fetchProjectSummaryPage", () -> Objects.isNull(after) 
+				? projectDao.fetchProjectSummaryPage(null, null, pageSize)
+				: projectDao.fetchProjectSummaryPage(after.getProjectName(), after.getProjectId(), 
+						pageSize));
+	}
+
+
+	/**
+	 * Every category in name order, from the in-memory CategoryDictionary.
+	 */
+	public List<Category> fetchAllCategories() {
+		return CategoryDictionary.getInstance().getAll();
+	}
+
+
+	/**
+	 * Returns the first page of the projects in a category, in project ID order.
+	 */
+	public Page<ProjectSummary> fetchProjectsInCategory(Integer categoryId, int pageSize) {
+		return fetchProjectsInCategory(categoryId, null, pageSize);
+	}
+
+
+	/**
+	 * Returns the page of the projects in a category that follows the given
+	 * summary. Passing null gives the first page.
+	 */
+	public Page<ProjectSummary> fetchProjectsInCategory(Integer categoryId, ProjectSummary after, 
+			int pageSize) {
+		if(pageSize < 1) {
+			throw new DbException("The page size must be at least 1.");
+		}
+		
+		if(Objects.isNull(CategoryDictionary.getInstance().get(categoryId))) {
+			throw new NoSuchElementException("Category with category ID=" + categoryId 
+					+ " does not exist.");
+		}
+		
+		return Metrics.time("daoCall.fetchProjectsInCategory", () -> projectDao.fetchProjectsInCategory(
+				categoryId, Objects.isNull(after) ? null : after.getProjectId(), pageSize));
+	}
+
+
+	/**
+	 * Returns the ID and name of every project, without the other columns.
+	 */
+	public List<ProjectSummary> fetchAllProjectSummaries() {
+		return Metrics.time("daoCall.fetchAllProjectSummaries", projectDao::fetchAllProjectSummaries);
+	}
+
+
+	/**
+	 * Streams all projects in name order without loading them into memory.
+	 * The stream holds a database connection until it is closed, so use it in
+	 * a try-with-resource.
+	 */
+	public Stream<Project> streamAllProjects() {
+		return Metrics.time("daoCall.streamAllProjects", projectDao::streamAllProjects);
+	}
+
+
+	/**
+	 * Passes each project to the callback as it is read from the database.
+	 */
+	public void forEachProject(Consumer<Project> callback) {
+		try(Stream<Project> projects = streamAllProjects()){
+			projects.forEach(callback);
+		}
+	}
+
+
+	public Project fetchProjectbyId(Integer projectId) {
+//		First used the Optional<Project> to create method in Dao class
+//		Then deleted the first portion and replaced it with return. 
+		
+//		Optional<Project> op= projectDao.fetchProjectId(projectId);
+				
+		//a read inside a transaction may see uncommitted rows, so it skips the cache
+		Optional<Project> project = DbConnection.isInTransaction() 
+				? loadProject(projectId)
+				: projectCache.get(projectId, this::loadProject);
+		
+		return project.
+				orElseThrow(()-> new NoSuchElementException(
+						"Project with project ID= " + projectId
+						+ " does not exist."));	
+								
+	}
+
+
+	private Optional<Project> loadProject(Integer projectId) {
+		return Metrics.time("daoCall.fetchProjectId", () -> projectDao.fetchProjectId(projectId));
+	}
+
+
+	public void modifyProjectDetails(Project project) {
+		//the values as written, in case the caller changes the project before commit
+		Project saved = ProjectCache.copy(project);
+		
+		boolean modified = Metrics.time("daoCall.modifyProjectDetails", 
+				() -> projectDao.modifyProjectDetails(project));
+		
+		if(!modified) {
+			projectCache.invalidate(project.getProjectId());
+			throw new DbException("The project ID=" + project.getProjectId() + 
+					"does not exist");
+		}		
+		
+		//inside a transaction the change is not visible to others until commit,
+		//so the cached copy is dropped now and patched once it commits
+		if(DbConnection.isInTransaction()) {
+			projectCache.invalidate(project.getProjectId());
+		}
+		
+		DbConnection.afterCommit(() -> projectCache.updateDetails(saved));
+		indexDetails(project);
+	}
+
+
+	/**
+	 * Saves the detail fields changed through the project's setters since it
+	 * was fetched, and returns the same project, now up to date, rather than
+	 * reading it back. If nothing changed, the database is not called at all.
+	 */
+	public Project updateProjectDetails(Project project) {
+		if(!project.isChanged()) {
+			return project;
+		}
+		
+		//only these columns are written, and the set is cleared on commit, so
+		//the cache is patched from what is captured here
+		Set<String> changed = Set.copyOf(project.getChangedFields());
+		Project saved = ProjectCache.copy(project);
+		
+		boolean modified = Metrics.time("daoCall.modifyChangedFields", 
+				() -> projectDao.modifyChangedFields(project));
+		
+		if(!modified) {
+			projectCache.invalidate(project.getProjectId());
+			throw new DbException("The project ID=" + project.getProjectId() + 
+					" does not exist");
+		}
+		
+		if(DbConnection.isInTransaction()) {
+			projectCache.invalidate(project.getProjectId());
+		}
+		
+		DbConnection.afterCommit(() -> projectCache.updateDetails(saved, changed));
+		indexDetails(project);
+		
+		return project;
+	}
+
+
+	/**
+	 * Runs several service calls on one connection as a single transaction.
+	 * The DAO methods join it instead of committing on their own, so the work
+	 * commits once at the end, or not at all if anything fails. For example:
+	 * 
+	 * projectService.inTransaction(service -> {
+	 *     service.modifyProjectDetails(project);
+	 *     return service.fetchProjectbyId(project.getProjectId());
+	 * });
+	 */
+	public <T> T inTransaction(Function<ProjectService, T> work) {
+		return DbConnection.inTransaction(false, () -> work.apply(this));
+	}
+
+
+	/**
+	 * Runs several reads on one connection without a BEGIN or COMMIT round trip.
+	 */
+	public <T> T inReadOnlyTransaction(Function<ProjectService, T> work) {
+		return DbConnection.inTransaction(true, () -> work.apply(this));
+	}
+
+
+	/**
+	 * Finds the projects whose notes or step text contain the words, best
+	 * match first, a page at a time: offset is the number of results to skip.
+	 * Uses the in-memory SearchIndex when db.search.inMemory is true and
+	 * MySQL's FULLTEXT indexes otherwise.
+	 */
+	public Page<ProjectSummary> searchProjects(String words, int offset, int pageSize) {
+		if(pageSize < 1 || offset < 0) {
+			throw new DbException("The page size must be at least 1 and the offset at least 0.");
+		}
+		
+		SearchIndex index = searchIndex;
+		
+		return Objects.nonNull(index) 
+				? Metrics.time("service.searchIndex", () -> index.search(words, offset, pageSize))
+				: Metrics.time("daoCall.searchProjects", 
+						() -> projectDao.searchProjects(words, offset, pageSize));
+	}
+
+
+	/**
+	 * Reads every project with its steps into a new search index, in the
+	 * four streaming queries of ProjectDao.forEachProjectGraph.
+	 */
+	private SearchIndex buildSearchIndex() {
+		SearchIndex index = new SearchIndex();
+		
+		Metrics.time("service.buildSearchIndex", () -> projectDao.forEachProjectGraph(index::put));
+		
+		return index;
+	}
+
+
+	/**
+	 * Puts the project's name and notes in the search index, if there is one,
+	 * once the current transaction commits.
+	 */
+	private void indexDetails(Project project) {
+		SearchIndex index = searchIndex;
+		
+		if(Objects.nonNull(index)) {
+			DbConnection.afterCommit(() -> index.putDetails(project));
+		}
+	}
+
+
+	/**
+	 * Logs hours worked on a project. The hours are added to actual_hours by
+	 * a later batched write, not by this call, so fetched projects show them
+	 * only after the next flush. An entry is rounded to hundredths and must be
+	 * more than 0 and at most 99999.99 hours, the most actual_hours can hold.
+	 * See TimeTracker.
+	 */
+	public void recordTime(Integer projectId, BigDecimal hours) {
+		if(Objects.isNull(projectId) || Objects.isNull(hours)) {
+			throw new DbException("A project ID and a number of hours are required.");
+		}
+		
+		BigDecimal rounded = hours.setScale(2, RoundingMode.HALF_UP);
+		
+		if(rounded.signum() <= 0 
+				|| rounded.compareTo(BigDecimal.valueOf(TimeTracker.MAX_ENTRY_HUNDREDTHS, 2)) > 0) {
+			throw new DbException("Hours logged must be more than 0 and at most " 
+					+ BigDecimal.valueOf(TimeTracker.MAX_ENTRY_HUNDREDTHS, 2) + ", not " + hours + ".");
+		}
+		
+		timeTracker.record(projectId, rounded.unscaledValue().longValueExact());
+	}
+
+
+	/**
+	 * Hours logged against the project that are not in actual_hours yet.
+	 */
+	public BigDecimal getUnflushedHours(Integer projectId) {
+		return BigDecimal.valueOf(timeTracker.getPending(projectId), 2);
+	}
+
+
+	/**
+	 * Writes the logged time now, rather than waiting for the timed flush,
+	 * and returns the number of projects updated. The write commits on its
+	 * own, so it cannot be part of a caller's transaction.
+	 */
+	public int flushTimeEntries() {
+		if(DbConnection.isInTransaction()) {
+			throw new DbException("Time entries cannot be flushed inside a transaction.");
+		}
+		
+		return timeTracker.flush();
+	}
+
+
+	/**
+	 * How fetchProjectbyId loads a project that is not cached.
+	 */
+	public AggregateLoadMode getAggregateLoadMode() {
+		return projectDao.getAggregateLoadMode();
+	}
+
+
+	/**
+	 * Hit, miss and eviction counts for the project cache.
+	 */
+	public ProjectCache.Stats getCacheStats() {
+		return projectCache.getStats();
+	}
+
+
+	public void deleteProject(Integer projectId) {
+		boolean deleted = Metrics.time("daoCall.deleteProject", 
+				() -> projectDao.deleteProject(projectId));
+		
+		projectCache.invalidate(projectId);
+		DbConnection.afterCommit(() -> projectCache.invalidate(projectId));
+		
+		SearchIndex index = searchIndex;
+		
+		if(Objects.nonNull(index)) {
+			DbConnection.afterCommit(() -> index.remove(projectId));
+		}
+		
+		DbConnection.afterCommit(() -> timeTracker.forget(projectId));
+		
+		if(!deleted) {
+			throw new DbException("The project ID=" + projectId + "does not exist.");
+			
+		}
+		
+	}
+	
+
+}
@@ -0,0 +1,167 @@
+package projects.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import projects.dao.DbConnection;
+import projects.dao.ReportDao;
+import projects.entity.EffortRollup;
+import projects.entity.ProjectBatch;
+import projects.entity.ProjectCost;
+import projects.metrics.Metrics;
+
+public class ReportService {
+	
+	//Cost and effort reports, each answered by one aggregate query in MySQL
+	//instead of loading every project. See ReportDao.
+	
+	private ReportDao reportDao = new ReportDao();
+	
+	//read material cost from the trigger-maintained project_rollup table
+	//instead of adding up the material rows on every call
+	private boolean useRollupTable = 
+			DbConnection.getConfig().getBoolean("db.reports.useRollupTable", false);
+	
+	//projects per ProjectBatch when the numbers are read for analysis here
+	private int batchRows = DbConnection.getConfig().getInt("db.reports.batchRows", 4096);
+	
+	
+	/**
+	 * Total material cost of every project, most expensive first.
+	 */
+	public List<ProjectCost> fetchCostPerProject() {
+		return useRollupTable
+				? Metrics.time("daoCall.fetchCostPerProjectFromRollup", 
+						reportDao::fetchCostPerProjectFromRollup)
+				: Metrics.time("daoCall.fetchCostPerProject", reportDao::fetchCostPerProject);
+	}
+	
+	
+	/**
+	 * How estimated hours compare with actual hours, for each difficulty.
+	 */
+	public List<EffortRollup> fetchEffortByDifficulty() {
+		return Metrics.time("daoCall.fetchEffortByDifficulty", reportDao::fetchEffortByDifficulty);
+	}
+	
+	
+	/**
+	 * Streams the numbers of every project through one reused ProjectBatch,
+	 * for analysis in Java that SQL cannot do. See ReportDao.forEachProjectBatch.
+	 */
+	public void forEachProjectBatch(Consumer<ProjectBatch> callback) {
+		Metrics.time("daoCall.forEachProjectBatch", 
+				() -> reportDao.forEachProjectBatch(new ProjectBatch(batchRows), callback));
+	}
+	
+	
+	/**
+	 * The same figures as fetchEffortByDifficulty, added up here from project
+	 * batches in long hundredths instead of by MySQL. Nothing is allocated
+	 * per project; BigDecimals are only made for the result rows.
+	 * 
+	 * The totals sit in arrays covering the lowest to the highest difficulty
+	 * seen so far. If the difficulties are spread over too wide a range for
+	 * that, the report is left to MySQL after all.
+	 */
+	public List<EffortRollup> computeEffortByDifficulty() {
+		DifficultyTotals totals = new DifficultyTotals();
+		
+		forEachProjectBatch(totals::add);
+		
+		return totals.isTooSparse() ? fetchEffortByDifficulty() : totals.toRows();
+	}
+	
+	
+	/**
+	 * How estimated hours compare with actual hours, for each category.
+	 */
+	public List<EffortRollup> fetchEffortByCategory() {
+		return Metrics.time("daoCall.fetchEffortByCategory", reportDao::fetchEffortByCategory);
+	}
+	
+	
+	/**
+	 * Running totals by difficulty for computeEffortByDifficulty, laid out as
+	 * ProjectBatch.addEffortByDifficulty expects: slot 0 for no difficulty,
+	 * then one slot per difficulty from lowest up.
+	 */
+	static class DifficultyTotals {
+		//most difficulty slots kept in arrays before handing the report to MySQL
+		private static final long MAX_SLOTS = 1 << 16;
+		
+		private int lowest;
+		private long[] projectCount = new long[1];
+		private long[] estimated = new long[1];
+		private long[] actual = new long[1];
+		private boolean tooSparse;
+		
+		void add(ProjectBatch batch) {
+			if(tooSparse) {
+				return;
+			}
+			
+			int min = batch.minDifficulty();
+			
+			if(min != ProjectBatch.NO_DIFFICULTY) {
+				boolean empty = projectCount.length == 1;
+				int newLowest = empty ? min : Math.min(lowest, min);
+				int newHighest = empty ? batch.maxDifficulty() 
+						: Math.max(lowest + projectCount.length - 2, batch.maxDifficulty());
+				long slots = (long)newHighest - newLowest + 2;
+				
+				if(slots > MAX_SLOTS) {
+					tooSparse = true;
+					return;
+				}
+				
+				if(newLowest != lowest || slots != projectCount.length) {
+					projectCount = regrow(projectCount, newLowest, (int)slots);
+					estimated = regrow(estimated, newLowest, (int)slots);
+					actual = regrow(actual, newLowest, (int)slots);
+					lowest = newLowest;
+				}
+			}
+			
+			batch.addEffortByDifficulty(lowest, projectCount, estimated, actual);
+		}
+		
+		boolean isTooSparse() {
+			return tooSparse;
+		}
+		
+		/**
+		 * One row per group that has projects, no difficulty first as NULL
+		 * sorts first in MySQL, then by difficulty.
+		 */
+		List<EffortRollup> toRows() {
+			List<EffortRollup> rows = new ArrayList<>();
+			
+			for(int group = 0; group < projectCount.length; group++) {
+				if(projectCount[group] > 0) {
+					EffortRollup row = new EffortRollup();
+					row.setGroupName(group == 0 ? "none" : Integer.toString(lowest + group - 1));
+					row.setProjectCount(projectCount[group]);
+					row.setEstimatedHours(ProjectBatch.toDecimal(estimated[group]));
+					row.setActualHours(ProjectBatch.toDecimal(actual[group]));
+					rows.add(row);
+				}
+			}
+			
+			return rows;
+		}
+		
+		private long[] regrow(long[] totals, int newLowest, int slots) {
+			long[] grown = new long[slots];
+			grown[0] = totals[0];
+			
+			if(totals.length > 1) {
+				System.arraycopy(totals, 1, grown, 1 + lowest - newLowest, totals.length - 1);
+			}
+			
+			return grown;
+		}
+	}
+	
+}
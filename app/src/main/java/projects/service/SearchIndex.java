@@ -0,0 +1,259 @@
+package projects.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import projects.entity.Page;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+
+public class SearchIndex {
+
+	/**
+	 * An in-memory inverted index over project notes and step text, the
+	 * in-process alternative to the FULLTEXT search in ProjectDao. For every
+	 * word it keeps the projects containing it and how often, so a search
+	 * only touches the projects that contain one of the words it asks for.
+	 *
+	 * Words are split on anything that is not a letter or digit, lowercased,
+	 * and kept if they are at least three characters and not a stop word,
+	 * which roughly follows InnoDB's full-text parser. A project scores the
+	 * sum over the searched words of (occurrences x log(1 + projects /
+	 * projects with the word)), so rare words count for more.
+	 *
+	 * Every change replaces what the index holds for that project's notes or
+	 * step, so applying the same change twice does no harm. ProjectService
+	 * applies changes once they commit.
+	 */
+
+	private static final int MIN_WORD_LENGTH = 3;
+
+	// @formatter:off
+	private static final Set<String> STOP_WORDS = Set.of(
+			"about", "are", "com", "for", "from", "how", "that", "the", "this", "was", "what",
+			"when", "where", "who", "will", "with", "und", "www", "and", "but", "not", "you");
+	// @formatter:on
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	//word -> project ID -> occurrences in that project
+	private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+
+	//what is indexed for each project, so a change can take the old words out
+	private final Map<Integer, Document> documents = new HashMap<>();
+
+	/**
+	 * Sets the project's name and notes, keeping its steps.
+	 */
+	public void putDetails(Project project) {
+		lock.writeLock().lock();
+
+		try {
+			Document document = documents.computeIfAbsent(project.getProjectId(), id -> new Document());
+
+			Map<String, Integer> words = countWords(project.getNotes());
+
+			document.name = project.getProjectName();
+			replace(project.getProjectId(), document.notesWords, words);
+			document.notesWords = words;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds or replaces the given steps of the project.
+	 */
+	public void putSteps(Integer projectId, List<Step> steps) {
+		lock.writeLock().lock();
+
+		try {
+			Document document = documents.computeIfAbsent(projectId, id -> new Document());
+
+			for(Step step : steps) {
+				Map<String, Integer> words = countWords(step.getStepText());
+				replace(projectId, document.stepWords.get(step.getStepId()), words);
+				document.stepWords.put(step.getStepId(), words);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the project's details and its steps.
+	 */
+	public void put(Project project) {
+		putDetails(project);
+		putSteps(project.getProjectId(), project.getSteps());
+	}
+
+	public void remove(Integer projectId) {
+		lock.writeLock().lock();
+
+		try {
+			Document document = documents.remove(projectId);
+
+			if(Objects.isNull(document)) {
+				return;
+			}
+
+			replace(projectId, document.notesWords, Map.of());
+
+			for(Map<String, Integer> words : document.stepWords.values()) {
+				replace(projectId, words, Map.of());
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+
+		try {
+			postings.clear();
+			documents.clear();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns a page of the projects containing any of the words, best match
+	 * first, ties in project ID order.
+	 */
+	public Page<ProjectSummary> search(String words, int offset, int pageSize) {
+		lock.readLock().lock();
+
+		try {
+			Map<Integer, Double> scores = new HashMap<>();
+			double projects = documents.size();
+
+			for(String word : countWords(words).keySet()) {
+				Map<Integer, Integer> hits = postings.get(word);
+
+				if(Objects.isNull(hits)) {
+					continue;
+				}
+
+				double weight = Math.log(1 + projects / hits.size());
+
+				hits.forEach((projectId, count) -> scores.merge(projectId, count * weight, Double::sum));
+			}
+
+			//keep only the best offset + pageSize + 1 instead of sorting every match
+			Comparator<Map.Entry<Integer, Double>> rank = Map.Entry.<Integer, Double>comparingByValue()
+					.reversed().thenComparing(Map.Entry.comparingByKey());
+			int wanted = offset + pageSize + 1;
+			PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(rank.reversed());
+
+			for(Map.Entry<Integer, Double> entry : scores.entrySet()) {
+				best.add(entry);
+
+				if(best.size() > wanted) {
+					best.poll();
+				}
+			}
+
+			List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(best);
+			ranked.sort(rank);
+
+			List<ProjectSummary> items = new ArrayList<>(pageSize);
+
+			for(int idx = offset; idx < Math.min(ranked.size(), offset + pageSize); idx++) {
+				Integer projectId = ranked.get(idx).getKey();
+
+				ProjectSummary summary = new ProjectSummary();
+				summary.setProjectId(projectId);
+				summary.setProjectName(documents.get(projectId).name);
+				items.add(summary);
+			}
+
+			return new Page<>(items, ranked.size() > offset + pageSize);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The number of projects indexed.
+	 */
+	public int size() {
+		lock.readLock().lock();
+
+		try {
+			return documents.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Takes the old words of a notes field or step out of the postings and
+	 * puts the new ones in.
+	 */
+	private void replace(Integer projectId, Map<String, Integer> oldWords,
+			Map<String, Integer> newWords) {
+		if(Objects.nonNull(oldWords)) {
+			oldWords.forEach((word, count) -> {
+				Map<Integer, Integer> hits = postings.get(word);
+
+				if(Objects.isNull(hits)) {
+					return;
+				}
+
+				hits.computeIfPresent(projectId, (id, old) -> old <= count ? null : old - count);
+
+				if(hits.isEmpty()) {
+					postings.remove(word);
+				}
+			});
+		}
+
+		newWords.forEach((word, count) -> postings.computeIfAbsent(word, w -> new HashMap<>())
+				.merge(projectId, count, Integer::sum));
+	}
+
+	/**
+	 * Splits text into index words and counts them.
+	 */
+	private static Map<String, Integer> countWords(String text) {
+		Map<String, Integer> counts = new HashMap<>();
+
+		if(Objects.isNull(text)) {
+			return counts;
+		}
+
+		for(String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+			if(word.length() >= MIN_WORD_LENGTH && !STOP_WORDS.contains(word)) {
+				counts.merge(word, 1, Integer::sum);
+			}
+		}
+
+		return counts;
+	}
+
+	private static class Document {
+		private String name;
+		private Map<String, Integer> notesWords = Map.of();
+		private final Map<Integer, Map<String, Integer>> stepWords = new HashMap<>();
+	}
+
+}
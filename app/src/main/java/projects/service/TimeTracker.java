@@ -0,0 +1,295 @@
+package projects.service;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import projects.dao.DbConnection;
+import projects.dao.ProjectDao;
+import projects.exception.DbException;
+import projects.metrics.Metrics;
+
+public class TimeTracker {
+
+	/**
+	 * Collects the time logged against projects in memory and writes it to
+	 * actual_hours later, a batch at a time, instead of one UPDATE per entry.
+	 * Logging time is a LongAdder add per project, in hundredths of an hour,
+	 * so it takes no lock and never waits on the database.
+	 *
+	 * A flush takes what each project has collected and adds it to the
+	 * stored hours with ProjectDao.addActualHours, one batched UPDATE for all
+	 * of them. It runs every flushMs, as soon as flushEntries entries are
+	 * waiting, on flush(), and when the JVM shuts down.
+	 *
+	 * If the batch fails, the projects are written one at a time. A project
+	 * whose hours the database rejects as a value (say actual_hours would
+	 * overflow its DECIMAL(7, 2)) has them dropped and reported on stderr,
+	 * so one bad total cannot hold up everyone else's. Any other failure
+	 * puts the hours back for the next flush.
+	 *
+	 * Until then the hours are only in memory: reads show them after the
+	 * flush, and a crash (not a normal exit) loses them. A project keeps its
+	 * small adder once it has logged time, so no entry is lost to a flush
+	 * removing it at the same moment.
+	 *
+	 * There is one tracker per process, shared by every ProjectService, so
+	 * there is one flush thread and one flush at shutdown. The services'
+	 * caches are told which projects a flush wrote; they are held weakly, so
+	 * a service that is no longer used can still be collected.
+	 */
+
+	//the most one entry may add, in hundredths: the largest DECIMAL(7, 2)
+	public static final long MAX_ENTRY_HUNDREDTHS = 9_999_999;
+
+	//SQLState class of data exceptions, such as a numeric value out of range
+	private static final String DATA_EXCEPTION = "22";
+
+	private static class InstanceHolder {
+		private static final TimeTracker INSTANCE = new TimeTracker(new ProjectDao(),
+				DbConnection.getConfig().getLong("db.timeTracking.flushMs", 5000),
+				DbConnection.getConfig().getInt("db.timeTracking.flushEntries", 1000));
+	}
+
+	private final ProjectDao projectDao;
+	private final long flushMs;
+	private final int flushEntries;
+
+	//caches to drop the written projects from, once a flush commits
+	private final Set<ProjectCache> caches =
+			Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+	//hours not yet written, in hundredths, by project ID
+	private final Map<Integer, LongAdder> pending = new ConcurrentHashMap<>();
+	private final AtomicInteger entriesSinceFlush = new AtomicInteger();
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	//the same Runnable is registered and removed again on close
+	private final Runnable shutdownTask = this::close;
+
+	private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+			runnable -> {
+				Thread thread = new Thread(runnable, "projects-time-flusher");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	TimeTracker(ProjectDao projectDao, long flushMs, int flushEntries) {
+		this.projectDao = projectDao;
+		this.flushMs = flushMs;
+		this.flushEntries = flushEntries;
+	}
+
+	public static TimeTracker getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	/**
+	 * Drops the projects a flush writes from this cache.
+	 */
+	void invalidateOnFlush(ProjectCache cache) {
+		caches.add(cache);
+	}
+
+	/**
+	 * Adds hundredths of an hour to the project, to be written by the next
+	 * flush. An entry must be more than 0 and at most MAX_ENTRY_HUNDREDTHS.
+	 */
+	public void record(Integer projectId, long hundredths) {
+		if(hundredths <= 0 || hundredths > MAX_ENTRY_HUNDREDTHS) {
+			throw new DbException("Hours logged must be more than 0 and at most "
+					+ BigDecimal.valueOf(MAX_ENTRY_HUNDREDTHS, 2) + ".");
+		}
+
+		start();
+
+		LongAdder hours = pending.get(projectId);
+
+		if(Objects.isNull(hours)) {
+			hours = pending.computeIfAbsent(projectId, id -> new LongAdder());
+		}
+
+		hours.add(hundredths);
+
+		if(entriesSinceFlush.incrementAndGet() == flushEntries) {
+			requestFlush();
+		}
+	}
+
+	/**
+	 * The hundredths logged against the project and not written yet.
+	 */
+	public long getPending(Integer projectId) {
+		LongAdder hours = pending.get(projectId);
+		return Objects.isNull(hours) ? 0 : hours.sum();
+	}
+
+	/**
+	 * Drops what is waiting for a project that was deleted.
+	 */
+	public void forget(Integer projectId) {
+		pending.remove(projectId);
+	}
+
+	/**
+	 * Writes everything collected so far and returns the number of projects
+	 * updated. Only one flush runs at a time.
+	 */
+	public synchronized int flush() {
+		entriesSinceFlush.set(0);
+
+		Map<Integer, Long> deltas = new HashMap<>();
+
+		pending.forEach((projectId, hours) -> {
+			long delta = hours.sumThenReset();
+
+			if(delta != 0) {
+				deltas.put(projectId, delta);
+			}
+		});
+
+		if(deltas.isEmpty()) {
+			return 0;
+		}
+
+		Set<Integer> written;
+
+		try {
+			Metrics.time("daoCall.addActualHours", () -> projectDao.addActualHours(deltas));
+			written = deltas.keySet();
+		}
+		catch(RuntimeException e) {
+			written = flushOneByOne(deltas);
+		}
+
+		invalidateCached(written);
+
+		return written.size();
+	}
+
+	/**
+	 * Stops the timed flushes and writes what is left.
+	 */
+	public void close() {
+		flusher.shutdown();
+		DbConnection.cancelBeforeShutdown(shutdownTask);
+		flush();
+	}
+
+	/**
+	 * Writes each project on its own after the batch failed. Hours the
+	 * database rejects are dropped; the first other failure puts the rest
+	 * back and is thrown once the projects written so far are reported.
+	 */
+	private Set<Integer> flushOneByOne(Map<Integer, Long> deltas) {
+		Set<Integer> written = new HashSet<>();
+		RuntimeException failure = null;
+
+		for(Map.Entry<Integer, Long> entry : new TreeMap<>(deltas).entrySet()) {
+			Integer projectId = entry.getKey();
+			long delta = entry.getValue();
+
+			if(Objects.nonNull(failure)) {
+				putBack(projectId, delta);
+				continue;
+			}
+
+			try {
+				Metrics.time("daoCall.addActualHours",
+						() -> projectDao.addActualHours(Map.of(projectId, delta)));
+				written.add(projectId);
+			}
+			catch(RuntimeException e) {
+				if(isBadValue(e)) {
+					System.err.println("Dropped " + BigDecimal.valueOf(delta, 2)
+							+ " hours logged against project ID=" + projectId + ": " + e);
+				}
+				else {
+					putBack(projectId, delta);
+					failure = e;
+				}
+			}
+		}
+
+		if(Objects.nonNull(failure)) {
+			invalidateCached(written);
+			throw failure;
+		}
+
+		return written;
+	}
+
+	private void putBack(Integer projectId, long delta) {
+		pending.computeIfAbsent(projectId, id -> new LongAdder()).add(delta);
+	}
+
+	private static boolean isBadValue(Throwable e) {
+		for(Throwable cause = e; Objects.nonNull(cause); cause = cause.getCause()) {
+			if(cause instanceof SQLException) {
+				String state = ((SQLException)cause).getSQLState();
+				return Objects.nonNull(state) && state.startsWith(DATA_EXCEPTION);
+			}
+		}
+		return false;
+	}
+
+	private void invalidateCached(Collection<Integer> projectIds) {
+		if(projectIds.isEmpty()) {
+			return;
+		}
+
+		synchronized(caches) {
+			for(ProjectCache cache : caches) {
+				projectIds.forEach(cache::invalidate);
+			}
+		}
+	}
+
+	/**
+	 * Schedules the timed flush and the flush at shutdown the first time
+	 * time is logged, so a tracker that is never used starts nothing.
+	 */
+	private void start() {
+		if(started.get() || !started.compareAndSet(false, true)) {
+			return;
+		}
+
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushMs, flushMs, TimeUnit.MILLISECONDS);
+		DbConnection.beforeShutdown(shutdownTask);
+	}
+
+	private void requestFlush() {
+		try {
+			flusher.execute(this::flushQuietly);
+		}
+		catch(RejectedExecutionException e) {
+			//closed: the final flush picks the entries up
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		}
+		catch(RuntimeException e) {
+			System.err.println("Time entries not written, will retry: " + e);
+		}
+	}
+
+}
@@ -0,0 +1,536 @@
+/**
+ * 
+ */
+package provided.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class contains utility methods for the DAO class.
+ * 
+ * @author Promineo
+ *
+ */
+public abstract class DaoBase {
+  /**
+   * This starts a MySQL transaction. Normally MySQL starts a transaction before every request and
+   * commits it after each request. By turning auto-commit off, the transaction is only committed
+   * when the application tells it to.
+   * 
+   * @param conn The connection on which to start the transaction.
+   * @throws SQLException Thrown if an error occurs starting the transaction.
+   */
+  protected void startTransaction(Connection conn) throws SQLException {
+    conn.setAutoCommit(false);
+  }
+
+  /**
+   * Commit the transaction. This will write all the changes, if any, to the database.
+   * 
+   * @param conn The connection on which to commit the transaction.
+   * @throws SQLException Thrown if an error occurs committing the transaction.
+   */
+  protected void commitTransaction(Connection conn) throws SQLException {
+    conn.commit();
+  }
+
+  /**
+   * Rolls back the changes so that nothing is committed.
+   * 
+   * @param conn The connection on which to roll back the transaction.
+   * @throws SQLException Thrown if an error occurs rolling back the transaction.
+   */
+  protected void rollbackTransaction(Connection conn) throws SQLException {
+    conn.rollback();
+  }
+
+  /**
+   * This sets a parameter on a prepared statement. If the parameter is null, it is handled
+   * correctly.
+   * 
+   * @param stmt The prepared statement on which to set the parameter.
+   * @param parameterIndex This is the one-based index of the parameter. In the SQL that is bound to
+   *        the prepared statement, parameters are indicated by a question mark. From left-to-right,
+   *        the index is the order in which a question mark is encountered.
+   * @param value The parameter value. This may be null.
+   * @param classType This is the Java class type of the parameter. It is used to select the correct
+   *        method on the driver so that the parameter is added correctly. It is also used to set
+   *        the type in case the parameter is null.
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected void setParameter(PreparedStatement stmt, int parameterIndex, Object value,
+      Class<?> classType) throws SQLException {
+    int sqlType = convertJavaClassToSqlType(classType);
+
+    if(Objects.isNull(value)) {
+      stmt.setNull(parameterIndex, sqlType);
+    }
+    else {
+      switch(sqlType) {
+        case Types.DECIMAL:
+          stmt.setBigDecimal(parameterIndex, (BigDecimal)value);
+          break;
+
+        case Types.DOUBLE:
+          stmt.setDouble(parameterIndex, (Double)value);
+          break;
+
+        case Types.INTEGER:
+          stmt.setInt(parameterIndex, (Integer)value);
+          break;
+
+        case Types.OTHER:
+          stmt.setObject(parameterIndex, value);
+          break;
+
+        case Types.VARCHAR:
+          stmt.setString(parameterIndex, (String)value);
+          break;
+
+        default:
+          throw new DaoException("Unknown parameter type: " + classType);
+      }
+    }
+  }
+
+  /**
+   * Converts from a Java class to a java.sql.Types value.
+   * 
+   * @param classType The class type
+   * @return A java.sql.Types value
+   */
+  private int convertJavaClassToSqlType(Class<?> classType) {
+    if(Integer.class.equals(classType)) {
+      return Types.INTEGER;
+    }
+
+    if(String.class.equals(classType)) {
+      return Types.VARCHAR;
+    }
+
+    if(Double.class.equals(classType)) {
+      return Types.DOUBLE;
+    }
+
+    if(BigDecimal.class.equals(classType)) {
+      return Types.DECIMAL;
+    }
+
+    if(LocalTime.class.equals(classType)) {
+      return Types.OTHER;
+    }
+
+    throw new DaoException("Unsupported class type: " + classType.getName());
+  }
+
+  /**
+   * This retrieves the number of child rows and adds one to the value. It is used to set the order
+   * of a child row. For a *real* application, a more sophisticated approach is desired. This method
+   * does not allow for entity reordering and does not allow for an entity to be deleted.
+   * 
+   * @param conn The connection
+   * @param id The ID of the parent entity
+   * @param tableName The name of the table with the child rows
+   * @param idName The name of the parent ID field
+   * @return The count of the entities attached to the parent plus one
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected Integer getNextSequenceNumber(Connection conn, Integer id, String tableName,
+      String idName) throws SQLException {
+    String sql = "SELECT COUNT(*) FROM " + tableName + " WHERE " + idName + " = ?";
+
+    try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, id, Integer.class);
+
+      try(ResultSet rs = stmt.executeQuery()) {
+        if(rs.next()) {
+          return rs.getInt(1) + 1;
+        }
+
+        return 1;
+      }
+    }
+  }
+
+  /**
+   * This retrieves the highest order value among the child rows of a parent, or zero if there are
+   * none. New child rows can then be numbered from this value plus one without counting the rows
+   * again for each one. The rows read are locked (FOR UPDATE) so that, inside a transaction, a
+   * second caller waits rather than reading the same value.
+   * 
+   * @param conn The connection
+   * @param id The ID of the parent entity
+   * @param tableName The name of the table with the child rows
+   * @param idName The name of the parent ID field
+   * @param orderName The name of the order column
+   * @return The highest order value for the parent, or zero
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected Integer getMaxSequenceNumber(Connection conn, Integer id, String tableName,
+      String idName, String orderName) throws SQLException {
+    String sql = maxSequenceNumberSql(tableName, idName, orderName);
+
+    try(PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, id, Integer.class);
+
+      try(ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? rs.getInt(1) : 0;
+      }
+    }
+  }
+
+  /**
+   * Returns the statement used by {@link #getMaxSequenceNumber}, so it can be checked with
+   * EXPLAIN.
+   * 
+   * @param tableName The name of the table with the child rows
+   * @param idName The name of the parent ID field
+   * @param orderName The name of the order column
+   * @return The SQL, with one parameter for the parent ID
+   */
+  protected static String maxSequenceNumberSql(String tableName, String idName,
+      String orderName) {
+    return "SELECT COALESCE(MAX(" + orderName + "), 0) FROM " + tableName + " WHERE " + idName
+        + " = ? FOR UPDATE";
+  }
+
+  /**
+   * This returns the integer primary key value of the last row inserted into the given table. It
+   * allows the ID to be inserted into the entity object after inserting it into the table.
+   * 
+   * The other way of doing this is to call {@link Statement#getGeneratedKeys()}, but this returns a
+   * result set that needs to be parsed for the ID. It's not really any easier than this approach
+   * but should be closer to database-agnostic.
+   * 
+   * @param conn The connection
+   * @param table The name of the table on which to get the last inserted primary key value
+   * @return The primary key value
+   * @throws SQLException Thrown if an error occurs
+   */
+  protected Integer getLastInsertId(Connection conn, String table) throws SQLException {
+    String sql = String.format("SELECT LAST_INSERT_ID() FROM %s", table);
+
+    try(Statement stmt = conn.createStatement()) {
+      try(ResultSet rs = stmt.executeQuery(sql)) {
+        if(rs.next()) {
+          return rs.getInt(1);
+        }
+
+        throw new SQLException("Unable to retrieve the primary key value. No result set!");
+      }
+    }
+  }
+
+  /**
+   * This extracts an object of the given type from a result set. The object must have a
+   * zero-argument constructor. It builds an object from a result set as follows:
+   * <ol>
+   * <li>A mapping plan is obtained for the class and the shape of the result set (see
+   * {@link MappingPlan}). The plan is built once and cached.</li>
+   * <li>An object of the given class type is created.</li>
+   * <li>Each field that has a matching column is assigned the value at that column's index. The
+   * field name is converted from Java naming to SQL naming conventions (camel case to snake case)
+   * when the plan is built. Obviously, for this to work, the Java name must match the column name.
+   * So, if the Java name is numServings, the column name must be num_servings.</li>
+   * </ol>
+   * 
+   * Example: if a query returns values for a recipe, a Recipe object is returned. So:
+   * 
+   * <pre>
+   * String sql = "SELECT * from recipe";
+   * ResultSet rs = getResultSetSomehow();
+   * 
+   * Recipe recipe = extract(rs, Recipe.class);
+   * </pre>
+   * 
+   * Note: if the Java field does not exist in the result set, the value of the field is left
+   * unchanged. So, class Recipe has an instance variable:
+   * 
+   * <pre>
+   * List<Ingredient> ingredients = new LinkedList<>();
+   * </pre>
+   * 
+   * Since the result set does not contain a column named "ingredients", the value is left alone and
+   * the list initialization is preserved.
+   * 
+   * @param <T> The Generic for the type of object to create and return.
+   * @param rs The result set in which to extract values. The result set must be positioned on the
+   *        correct row by the caller.
+   * @param classType The actual class type of the object to create.
+   * @return A populated class.
+   */
+  protected <T> T extract(ResultSet rs, Class<T> classType) {
+    try {
+      T obj = planFor(rs, classType).map(rs);
+      ROWS_MAPPED.increment();
+      return obj;
+    }
+    catch(DaoException e) {
+      throw e;
+    }
+    catch(Throwable e) {
+      throw new DaoException("Unable to create object of type " + classType.getName(), e);
+    }
+  }
+
+  /**
+   * Returns the mapping plan for the given result set and class. The plan used for the previous row
+   * on this thread is remembered, so a loop over a result set only looks up the plan once. Otherwise
+   * the plan is looked up in the cache by class and column labels, and built if it isn't there.
+   * 
+   * @param <T> The type of object the plan creates.
+   * @param rs The result set to be mapped.
+   * @param classType The class to map each row to.
+   * @return The mapping plan.
+   * @throws SQLException Thrown if the result set metadata cannot be read.
+   */
+  @SuppressWarnings("unchecked")
+  protected <T> MappingPlan<T> planFor(ResultSet rs, Class<T> classType) throws SQLException {
+    LastPlan last = LAST_PLAN.get();
+
+    if(Objects.nonNull(last) && last.classType == classType && last.resultSet.get() == rs) {
+      return (MappingPlan<T>)last.plan;
+    }
+
+    ResultSetMetaData meta = rs.getMetaData();
+    StringBuilder shape = new StringBuilder(classType.getName());
+
+    for(int col = 1; col <= meta.getColumnCount(); col++) {
+      shape.append(',').append(meta.getColumnLabel(col));
+    }
+
+    String key = shape.toString();
+    MappingPlan<?> plan = PLANS.get(key);
+
+    if(Objects.isNull(plan)) {
+      plan = PLANS.computeIfAbsent(key, k -> MappingPlan.build(meta, classType));
+    }
+
+    LAST_PLAN.set(new LastPlan(rs, classType, plan));
+    return (MappingPlan<T>)plan;
+  }
+
+  /** Mapping plans keyed by class name plus the column labels of the result set. */
+  private static final Map<String, MappingPlan<?>> PLANS = new ConcurrentHashMap<>();
+
+  /** The number of rows turned into objects by {@link #extract(ResultSet, Class)}. */
+  private static final LongAdder ROWS_MAPPED = new LongAdder();
+
+  /**
+   * Returns the number of rows extracted into objects since the application started. This is
+   * meant for monitoring.
+   * 
+   * @return The row count
+   */
+  public static long getRowsMapped() {
+    return ROWS_MAPPED.sum();
+  }
+
+  /** The plan used for the last row extracted on this thread. */
+  private static final ThreadLocal<LastPlan> LAST_PLAN = new ThreadLocal<>();
+
+  /**
+   * Remembers which plan was used for which result set. The result set is weakly referenced so a
+   * closed result set isn't kept alive by the thread.
+   */
+  private static class LastPlan {
+    private final WeakReference<ResultSet> resultSet;
+    private final Class<?> classType;
+    private final MappingPlan<?> plan;
+
+    LastPlan(ResultSet rs, Class<?> classType, MappingPlan<?> plan) {
+      this.resultSet = new WeakReference<>(rs);
+      this.classType = classType;
+      this.plan = plan;
+    }
+  }
+
+  /**
+   * This holds everything needed to turn a row of one result set shape into an object of one class.
+   * It is built once per class and set of column labels:
+   * <ul>
+   * <li>The zero-argument constructor is looked up as a method handle.</li>
+   * <li>Each declared (non-static) field is matched to a column index by its snake case name.
+   * Fields with no matching column, like the child lists in Project, are simply left out of the
+   * plan.</li>
+   * <li>Each matched field gets a setter method handle, so private fields are populated without
+   * reflection on every row.</li>
+   * </ul>
+   * 
+   * @param <T> The type of object the plan creates.
+   */
+  protected static final class MappingPlan<T> {
+    private final MethodHandle constructor;
+    private final int[] columns;
+    private final MethodHandle[] setters;
+    private final Class<?>[] fieldTypes;
+
+    private MappingPlan(MethodHandle constructor, int[] columns, MethodHandle[] setters,
+        Class<?>[] fieldTypes) {
+      this.constructor = constructor;
+      this.columns = columns;
+      this.setters = setters;
+      this.fieldTypes = fieldTypes;
+    }
+
+    /**
+     * Creates an object and populates it from the current row.
+     * 
+     * @param rs The result set, positioned on the row to map.
+     * @return The populated object.
+     * @throws Throwable Thrown if the object cannot be created or a value cannot be read or set.
+     */
+    @SuppressWarnings("unchecked")
+    public T map(ResultSet rs) throws Throwable {
+      T obj = (T)constructor.invoke();
+
+      for(int idx = 0; idx < columns.length; idx++) {
+        Object fieldValue = rs.getObject(columns[idx]);
+
+        /*
+         * Only set the value in the object if there is a value in the result set. This will
+         * preserve instance variables that are assigned values when the object is created.
+         */
+        if(Objects.nonNull(fieldValue)) {
+          /*
+           * Convert the following types: Time -> LocalTime, and Timestamp -> LocalDateTime.
+           */
+          if(fieldValue instanceof Time && fieldTypes[idx].equals(LocalTime.class)) {
+            fieldValue = ((Time)fieldValue).toLocalTime();
+          }
+          else if(fieldValue instanceof Timestamp && fieldTypes[idx].equals(LocalDateTime.class)) {
+            fieldValue = ((Timestamp)fieldValue).toLocalDateTime();
+          }
+
+          setters[idx].invoke(obj, fieldValue);
+        }
+      }
+
+      return obj;
+    }
+
+    /**
+     * Builds a plan for the given result set metadata and class.
+     * 
+     * @param meta The result set metadata. Column labels are matched first, then column names.
+     * @param classType The class to create.
+     * @return The plan.
+     */
+    static <T> MappingPlan<T> build(ResultSetMetaData meta, Class<T> classType) {
+      try {
+        Map<String, Integer> columnIndexes = new HashMap<>();
+
+        for(int col = meta.getColumnCount(); col >= 1; col--) {
+          /* Counting down means the first column wins if two share a label. */
+          columnIndexes.put(meta.getColumnLabel(col).toLowerCase(), col);
+        }
+
+        for(int col = 1; col <= meta.getColumnCount(); col++) {
+          columnIndexes.putIfAbsent(meta.getColumnName(col).toLowerCase(), col);
+        }
+
+        MethodHandles.Lookup lookup =
+            MethodHandles.privateLookupIn(classType, MethodHandles.lookup());
+        MethodHandle constructor =
+            lookup.findConstructor(classType, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(Object.class));
+
+        List<Integer> columns = new ArrayList<>();
+        List<MethodHandle> setters = new ArrayList<>();
+        List<Class<?>> fieldTypes = new ArrayList<>();
+
+        for(Field field : classType.getDeclaredFields()) {
+          if(Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+
+          Integer col = columnIndexes.get(camelCaseToSnakeCase(field.getName()));
+
+          if(Objects.nonNull(col)) {
+            columns.add(col);
+            setters.add(lookup.unreflectSetter(field)
+                .asType(MethodType.methodType(void.class, Object.class, Object.class)));
+            fieldTypes.add(field.getType());
+          }
+        }
+
+        return new MappingPlan<>(constructor, columns.stream().mapToInt(Integer::intValue).toArray(),
+            setters.toArray(new MethodHandle[0]), fieldTypes.toArray(new Class<?>[0]));
+      }
+      catch(SQLException | ReflectiveOperationException e) {
+        throw new DaoException("Unable to create object of type " + classType.getName(), e);
+      }
+    }
+  }
+
+  /**
+   * This converts a camel case value (rowInsertTime) to snake case (row_insert_time).
+   * 
+   * @param identifier The name in camel case to convert.
+   * @return The name converted to snake case.
+   */
+  protected static String camelCaseToSnakeCase(String identifier) {
+    StringBuilder nameBuilder = new StringBuilder();
+
+    for(char ch : identifier.toCharArray()) {
+      if(Character.isUpperCase(ch)) {
+        nameBuilder.append('_').append(Character.toLowerCase(ch));
+      }
+      else {
+        nameBuilder.append(ch);
+      }
+    }
+
+    return nameBuilder.toString();
+  }
+
+  /**
+   * This class declares the exception throw by the {@link DaoBase} class. It is a thin wrapper for
+   * {@link RuntimeException}.
+   * 
+   * @author Promineo
+   *
+   */
+  @SuppressWarnings("serial")
+  static class DaoException extends RuntimeException {
+
+    /**
+     * @param message
+     * @param cause
+     */
+    public DaoException(String message, Throwable cause) {
+      super(message, cause);
+    }
+
+    /**
+     * @param message
+     */
+    public DaoException(String message) {
+      super(message);
+    }
+  }
+}
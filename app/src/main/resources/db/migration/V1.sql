@@ -1,10 +1,6 @@
-DROP TABLE IF EXISTS project_category;
-DROP TABLE IF EXISTS material;
-DROP TABLE IF EXISTS step;
-DROP TABLE IF EXISTS category;
-DROP TABLE IF EXISTS project;
+-- Baseline: the tables as projects-schema.sql first created them
 
-CREATE TABLE project (
+CREATE TABLE IF NOT EXISTS project (
   project_id INT AUTO_INCREMENT NOT NULL,
   project_name VARCHAR(128) NOT NULL,
   estimated_hours DECIMAL(7, 2),
@@ -14,13 +10,13 @@ CREATE TABLE project (
   PRIMARY KEY (project_id)
 );
 
-CREATE TABLE category (
+CREATE TABLE IF NOT EXISTS category (
   category_id INT AUTO_INCREMENT NOT NULL,
   category_name VARCHAR(128) NOT NULL,
   PRIMARY KEY (category_id)
 );
 
-CREATE TABLE step (
+CREATE TABLE IF NOT EXISTS step (
   step_id INT AUTO_INCREMENT NOT NULL,
   project_id INT NOT NULL,
   step_text TEXT NOT NULL,
@@ -29,7 +25,7 @@ CREATE TABLE step (
   FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
 );
 
-CREATE TABLE material (
+CREATE TABLE IF NOT EXISTS material (
   material_id INT AUTO_INCREMENT NOT NULL,
   project_id INT NOT NULL,
   material_name VARCHAR(128) NOT NULL,
@@ -39,10 +35,10 @@ CREATE TABLE material (
   FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
 );
 
-CREATE TABLE project_category (
+CREATE TABLE IF NOT EXISTS project_category (
   project_id INT NOT NULL,
   category_id INT NOT NULL,
   FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE,
   FOREIGN KEY (category_id) REFERENCES category (category_id) ON DELETE CASCADE,
   UNIQUE KEY (project_id, category_id)
-);
\ No newline at end of file
+);
@@ -0,0 +1,10 @@
+-- Indexes for the project list, step order and category name access paths
+
+-- project list and keyset paging: ORDER BY project_name, project_id
+CREATE INDEX idx_project_name_id ON project (project_name, project_id);
+
+-- steps of a project in order, and the MAX(step_order) lookup when adding steps
+CREATE INDEX idx_step_project_order ON step (project_id, step_order);
+
+-- category list in name order
+CREATE INDEX idx_category_name ON category (category_name);
@@ -0,0 +1,5 @@
+-- Full-text indexes for keyword search over project notes and step text
+
+CREATE FULLTEXT INDEX ft_project_notes ON project (notes);
+
+CREATE FULLTEXT INDEX ft_step_text ON step (step_text);
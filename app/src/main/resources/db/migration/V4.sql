@@ -0,0 +1,42 @@
+-- Precomputed material cost per project, kept current by triggers on material
+
+CREATE TABLE IF NOT EXISTS project_rollup (
+  project_id INT NOT NULL,
+  material_count INT NOT NULL DEFAULT 0,
+  total_cost DECIMAL(13, 2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (project_id),
+  FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
+);
+
+-- A material with no num_required counts once, as in the live report.
+CREATE TRIGGER trg_material_rollup_insert AFTER INSERT ON material FOR EACH ROW
+  INSERT INTO project_rollup (project_id, material_count, total_cost)
+  VALUES (NEW.project_id, 1, COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0))
+  ON DUPLICATE KEY UPDATE
+    material_count = material_count + 1,
+    total_cost = total_cost + COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0);
+
+CREATE TRIGGER trg_material_rollup_update AFTER UPDATE ON material FOR EACH ROW
+  UPDATE project_rollup
+  SET total_cost = total_cost
+    - COALESCE(OLD.num_required, 1) * COALESCE(OLD.cost, 0)
+    + COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0)
+  WHERE project_id = NEW.project_id;
+
+-- Deleting a project cascades to material without firing this, and the
+-- project's rollup row goes with it through its own foreign key.
+CREATE TRIGGER trg_material_rollup_delete AFTER DELETE ON material FOR EACH ROW
+  UPDATE project_rollup
+  SET material_count = material_count - 1,
+    total_cost = total_cost - COALESCE(OLD.num_required, 1) * COALESCE(OLD.cost, 0)
+  WHERE project_id = OLD.project_id;
+
+-- Backfill after the triggers exist. The figures are recomputed, not added,
+-- so running this again is harmless.
+INSERT INTO project_rollup (project_id, material_count, total_cost)
+  SELECT project_id, COUNT(*), SUM(COALESCE(num_required, 1) * COALESCE(cost, 0))
+  FROM material
+  GROUP BY project_id
+  ON DUPLICATE KEY UPDATE
+    material_count = VALUES(material_count),
+    total_cost = VALUES(total_cost);
@@ -0,0 +1,4 @@
+-- Reverse index on project_category for listing the projects in a category
+
+-- projects in a category in project ID order: WHERE category_id = ? AND project_id > ?
+CREATE INDEX idx_category_project ON project_category (category_id, project_id);
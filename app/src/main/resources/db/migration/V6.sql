@@ -0,0 +1,40 @@
+-- Keep project_rollup right when a material moves to another project
+
+-- V4's update trigger applied the whole change to the new project's row, so a
+-- moved material left its cost on the old project and was never counted on
+-- the new one. The old project's row now gives the material up and the new
+-- project's row takes it on, in a second trigger that runs after the first.
+DROP TRIGGER IF EXISTS trg_material_rollup_move;
+DROP TRIGGER IF EXISTS trg_material_rollup_update;
+
+CREATE TRIGGER trg_material_rollup_update AFTER UPDATE ON material FOR EACH ROW
+  UPDATE project_rollup
+  SET material_count = material_count - IF(OLD.project_id = NEW.project_id, 0, 1),
+    total_cost = total_cost
+    - COALESCE(OLD.num_required, 1) * COALESCE(OLD.cost, 0)
+    + IF(OLD.project_id = NEW.project_id, COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0), 0)
+  WHERE project_id = OLD.project_id;
+
+CREATE TRIGGER trg_material_rollup_move AFTER UPDATE ON material FOR EACH ROW
+  FOLLOWS trg_material_rollup_update
+  INSERT INTO project_rollup (project_id, material_count, total_cost)
+  SELECT NEW.project_id, 1, COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0)
+  FROM DUAL
+  WHERE OLD.project_id <> NEW.project_id
+  ON DUPLICATE KEY UPDATE
+    material_count = material_count + 1,
+    total_cost = total_cost + COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0);
+
+-- Recompute the rollup, as V4 did, to repair rows left wrong by earlier moves.
+-- A project whose materials all moved away has nothing left to count.
+UPDATE project_rollup
+  SET material_count = 0, total_cost = 0
+  WHERE project_id NOT IN (SELECT project_id FROM material);
+
+INSERT INTO project_rollup (project_id, material_count, total_cost)
+  SELECT project_id, COUNT(*), SUM(COALESCE(num_required, 1) * COALESCE(cost, 0))
+  FROM material
+  GROUP BY project_id
+  ON DUPLICATE KEY UPDATE
+    material_count = VALUES(material_count),
+    total_cost = VALUES(total_cost);
@@ -0,0 +1,99 @@
+-- Drops and recreates every table, for a fresh development or test database.
+-- The result matches applying all of db/migration. Existing databases are
+-- upgraded with SchemaMigrator instead, so keep the two in step.
+
+DROP TABLE IF EXISTS project_rollup;
+DROP TABLE IF EXISTS project_category;
+DROP TABLE IF EXISTS material;
+DROP TABLE IF EXISTS step;
+DROP TABLE IF EXISTS category;
+DROP TABLE IF EXISTS project;
+
+CREATE TABLE project (
+  project_id INT AUTO_INCREMENT NOT NULL,
+  project_name VARCHAR(128) NOT NULL,
+  estimated_hours DECIMAL(7, 2),
+  actual_hours DECIMAL(7, 2),
+  difficulty INT,
+  notes TEXT,
+  PRIMARY KEY (project_id),
+  INDEX idx_project_name_id (project_name, project_id)
+);
+
+CREATE TABLE category (
+  category_id INT AUTO_INCREMENT NOT NULL,
+  category_name VARCHAR(128) NOT NULL,
+  PRIMARY KEY (category_id),
+  INDEX idx_category_name (category_name)
+);
+
+CREATE TABLE step (
+  step_id INT AUTO_INCREMENT NOT NULL,
+  project_id INT NOT NULL,
+  step_text TEXT NOT NULL,
+  step_order INT NOT NULL,
+  PRIMARY KEY (step_id),
+  INDEX idx_step_project_order (project_id, step_order),
+  FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
+);
+
+CREATE TABLE material (
+  material_id INT AUTO_INCREMENT NOT NULL,
+  project_id INT NOT NULL,
+  material_name VARCHAR(128) NOT NULL,
+  num_required INT,
+  cost DECIMAL(7, 2),
+  PRIMARY KEY (material_id),
+  FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
+);
+
+CREATE TABLE project_category (
+  project_id INT NOT NULL,
+  category_id INT NOT NULL,
+  FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE,
+  FOREIGN KEY (category_id) REFERENCES category (category_id) ON DELETE CASCADE,
+  UNIQUE KEY (project_id, category_id),
+  INDEX idx_category_project (category_id, project_id)
+);
+
+CREATE FULLTEXT INDEX ft_project_notes ON project (notes);
+CREATE FULLTEXT INDEX ft_step_text ON step (step_text);
+
+CREATE TABLE project_rollup (
+  project_id INT NOT NULL,
+  material_count INT NOT NULL DEFAULT 0,
+  total_cost DECIMAL(13, 2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (project_id),
+  FOREIGN KEY (project_id) REFERENCES project (project_id) ON DELETE CASCADE
+);
+
+CREATE TRIGGER trg_material_rollup_insert AFTER INSERT ON material FOR EACH ROW
+  INSERT INTO project_rollup (project_id, material_count, total_cost)
+  VALUES (NEW.project_id, 1, COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0))
+  ON DUPLICATE KEY UPDATE
+    material_count = material_count + 1,
+    total_cost = total_cost + COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0);
+
+CREATE TRIGGER trg_material_rollup_update AFTER UPDATE ON material FOR EACH ROW
+  UPDATE project_rollup
+  SET material_count = material_count - IF(OLD.project_id = NEW.project_id, 0, 1),
+    total_cost = total_cost
+    - COALESCE(OLD.num_required, 1) * COALESCE(OLD.cost, 0)
+    + IF(OLD.project_id = NEW.project_id, COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0), 0)
+  WHERE project_id = OLD.project_id;
+
+CREATE TRIGGER trg_material_rollup_move AFTER UPDATE ON material FOR EACH ROW
+  FOLLOWS trg_material_rollup_update
+  INSERT INTO project_rollup (project_id, material_count, total_cost)
+  SELECT NEW.project_id, 1, COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0)
+  FROM DUAL
+  WHERE OLD.project_id <> NEW.project_id
+  ON DUPLICATE KEY UPDATE
+    material_count = material_count + 1,
+    total_cost = total_cost + COALESCE(NEW.num_required, 1) * COALESCE(NEW.cost, 0);
+
+CREATE TRIGGER trg_material_rollup_delete AFTER DELETE ON material FOR EACH ROW
+  UPDATE project_rollup
+  SET material_count = material_count - 1,
+    total_cost = total_cost - COALESCE(OLD.num_required, 1) * COALESCE(OLD.cost, 0)
+  WHERE project_id = OLD.project_id;
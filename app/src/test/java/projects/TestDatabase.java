@@ -0,0 +1,72 @@
+package projects;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import projects.dao.CategoryDictionary;
+import projects.dao.DbConnection;
+import projects.exception.DbException;
+
+public class TestDatabase {
+
+	/**
+	 * Sets up the tables of projects-schema.sql in the H2 database the tests
+	 * run against (see the surefire settings in pom.xml). H2 has no MySQL
+	 * full-text indexes or single-statement triggers, so those are left out;
+	 * project_rollup stays empty.
+	 */
+
+	private TestDatabase() {
+	}
+
+	/**
+	 * Drops and creates the tables, then reloads the category dictionary so
+	 * it does not hold categories from an earlier test.
+	 */
+	public static void createSchema() {
+		try(InputStream in = TestDatabase.class.getClassLoader()
+				.getResourceAsStream("projects-schema.sql")){
+			String schema = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+
+			for(String sql : schema.split(";")) {
+				if(!sql.isBlank() && !sql.contains("FULLTEXT") && !sql.contains("TRIGGER")) {
+					execute(sql);
+				}
+			}
+		}
+		catch(IOException e) {
+			throw new DbException(e);
+		}
+
+		CategoryDictionary.getInstance().refresh();
+	}
+
+	public static void execute(String sql) {
+		try(Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement()){
+			stmt.execute(sql);
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/**
+	 * Runs a query and returns the first column of its first row as a long.
+	 */
+	public static long queryLong(String sql) {
+		try(Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery(sql)){
+			rs.next();
+			return rs.getLong(1);
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+}
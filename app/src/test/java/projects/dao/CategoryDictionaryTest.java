@@ -0,0 +1,119 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import projects.TestDatabase;
+import projects.entity.Category;
+
+class CategoryDictionaryTest {
+
+	private final CategoryDictionary dictionary = CategoryDictionary.getInstance();
+
+	@BeforeAll
+	static void createSchema() {
+		TestDatabase.createSchema();
+	}
+
+	@Test
+	void putAllIsSeenWithoutReadingTheTable() {
+		insertCategory(101, "Dictionary Put");
+
+		Category category = new Category();
+		category.setCategoryId(101);
+		category.setCategoryName("Dictionary Put");
+		dictionary.putAll(List.of(category));
+
+		assertEquals("Dictionary Put", dictionary.get(101).getCategoryName());
+		assertEquals(101, dictionary.findId("Dictionary Put"));
+	}
+
+	@Test
+	void missRightAfterAReloadDoesNotReadTheTableAgain() {
+		dictionary.refresh();
+		insertCategory(102, "Dictionary Late");
+
+		//within db.categories.missReloadMs of the refresh, so still a miss
+		assertNull(dictionary.get(102));
+		assertNull(dictionary.findId("Dictionary Late"));
+
+		dictionary.refresh();
+
+		assertEquals("Dictionary Late", dictionary.get(102).getCategoryName());
+	}
+
+	@Test
+	void rowsReadInsideATransactionAreNotKept() {
+		dictionary.refresh();
+
+		assertThrows(IllegalStateException.class, () -> DbConnection.inTransaction(false, () -> {
+			insertCategory(103, "Dictionary Uncommitted");
+
+			//visible to the transaction that wrote it
+			assertEquals("Dictionary Uncommitted", dictionary.get(103).getCategoryName());
+
+			throw new IllegalStateException("roll back");
+		}));
+
+		dictionary.refresh();
+
+		assertNull(dictionary.get(103));
+		assertEquals(0, dictionary.getAll().stream()
+				.filter(category -> category.getCategoryId() == 103).count());
+	}
+
+	@Test
+	void missReadsThroughTheCallersConnection() throws Exception {
+		dictionary.refresh();
+		insertCategory(104, "Dictionary Caller");
+
+		//let the next miss reread the table
+		Thread.sleep(DbConnection.getConfig().getLong("db.categories.missReloadMs", 1000) + 100);
+
+		try(Connection conn = DbConnection.getConnection()){
+			AtomicInteger prepared = new AtomicInteger();
+			Connection counted = (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+						if(method.getName().equals("prepareStatement")) {
+							prepared.incrementAndGet();
+						}
+						return method.invoke(conn, args);
+					});
+
+			assertEquals("Dictionary Caller", dictionary.get(104, counted).getCategoryName());
+			assertEquals(1, prepared.get());
+			assertFalse(conn.isClosed());
+		}
+	}
+
+	@Test
+	void sharedNameFindsTheLowestId() {
+		Category second = new Category();
+		second.setCategoryId(106);
+		second.setCategoryName("Dictionary Twin");
+
+		Category first = new Category();
+		first.setCategoryId(105);
+		first.setCategoryName("Dictionary Twin");
+
+		dictionary.putAll(List.of(second, first));
+
+		assertEquals(105, dictionary.findId("Dictionary Twin"));
+	}
+
+	private static void insertCategory(int categoryId, String categoryName) {
+		TestDatabase.execute("INSERT INTO category (category_id, category_name) VALUES ("
+				+ categoryId + ", '" + categoryName + "')");
+	}
+
+}
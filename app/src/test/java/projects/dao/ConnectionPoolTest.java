@@ -0,0 +1,159 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import projects.exception.DbException;
+
+class ConnectionPoolTest {
+
+	//Runs the pool against its own in-memory H2 database. The settings are
+	//passed the way a launch would, as system properties over db.properties.
+
+	private static final Map<String, String> SETTINGS = Map.of(
+			"db.url", "jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1",
+			"db.pool.minSize", "0",
+			"db.pool.maxSize", "2",
+			"db.pool.acquireTimeoutMs", "200");
+
+	private Properties saved;
+	private ConnectionPool pool;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		saved = (Properties)System.getProperties().clone();
+		SETTINGS.forEach(System::setProperty);
+		pool = new ConnectionPool(DbConfig.load());
+
+		try(Connection conn = pool.borrow(); Statement stmt = conn.createStatement()){
+			stmt.execute("CREATE TABLE IF NOT EXISTS t (id INT)");
+			stmt.execute("DELETE FROM t");
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.close();
+		System.setProperties(saved);
+	}
+
+	@Test
+	void reusesReturnedConnection() throws SQLException {
+		try(Connection conn = pool.borrow()){
+			assertEquals(1, pool.getActiveConnections());
+		}
+
+		try(Connection conn = pool.borrow()){
+			assertEquals(1, pool.getTotalConnections());
+		}
+
+		assertEquals(0, pool.getActiveConnections());
+		assertEquals(1, pool.getIdleConnections());
+	}
+
+	@Test
+	void timesOutWhenAllConnectionsAreInUse() throws SQLException {
+		try(Connection first = pool.borrow(); Connection second = pool.borrow()){
+			assertThrows(DbException.class, pool::borrow);
+		}
+
+		//the permits came back with the connections
+		try(Connection conn = pool.borrow()){
+			assertFalse(conn.isClosed());
+		}
+	}
+
+	@Test
+	void rollsBackUncommittedWorkOnReturn() throws SQLException {
+		try(Connection conn = pool.borrow(); Statement stmt = conn.createStatement()){
+			conn.setAutoCommit(false);
+			stmt.execute("INSERT INTO t VALUES (1)");
+		}
+
+		try(Connection conn = pool.borrow(); Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")){
+			assertTrue(conn.getAutoCommit());
+			rs.next();
+			assertEquals(0, rs.getInt(1));
+		}
+	}
+
+	@Test
+	void rollsBackWorkRunAfterACommitOnReturn() throws SQLException {
+		try(Connection conn = pool.borrow()){
+			conn.setAutoCommit(false);
+
+			try(PreparedStatement stmt = conn.prepareStatement("INSERT INTO t VALUES (1)")){
+				conn.commit();
+				stmt.executeUpdate();
+			}
+		}
+
+		try(Connection conn = pool.borrow(); Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")){
+			rs.next();
+			assertEquals(0, rs.getInt(1));
+		}
+	}
+
+	@Test
+	void handsOutTheDriversStatementsWhenNotTimedOrTraced() throws SQLException {
+		try(Connection conn = pool.borrow(); Statement stmt = conn.createStatement()){
+			assertFalse(Proxy.isProxyClass(stmt.getClass()));
+		}
+	}
+
+	@Test
+	void statementHandsBackThePooledConnection() throws SQLException {
+		//only a wrapped statement knows the pooled connection
+		pool.close();
+		System.setProperty("db.metrics.timeStatements", "true");
+		pool = new ConnectionPool(DbConfig.load());
+
+		Connection conn = pool.borrow();
+		Statement stmt = conn.createStatement();
+
+		assertSame(conn, stmt.getConnection());
+		stmt.getConnection().close();
+		assertEquals(0, pool.getActiveConnections());
+
+		//the physical connection went back to the pool open, and is reused
+		try(Connection again = pool.borrow(); Statement check = again.createStatement()){
+			assertTrue(check.execute("SELECT 1"));
+			assertEquals(1, pool.getTotalConnections());
+		}
+	}
+
+	@Test
+	void rejectsUseAfterReturn() throws SQLException {
+		Connection conn = pool.borrow();
+		conn.close();
+
+		assertTrue(conn.isClosed());
+		assertThrows(SQLException.class, conn::createStatement);
+	}
+
+	@Test
+	void refusesToLendOnceClosed() {
+		pool.close();
+
+		assertThrows(DbException.class, pool::borrow);
+	}
+
+}
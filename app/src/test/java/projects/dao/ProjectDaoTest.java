@@ -0,0 +1,130 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import projects.TestDatabase;
+import projects.entity.Project;
+
+class ProjectDaoTest {
+
+	//H2 returns only the first result of a multi-statement request and has no
+	//START TRANSACTION READ ONLY, so SINGLE_ROUND_TRIP cannot run against it.
+	//The assembler is fed the four result sets by a stand-in statement instead,
+	//with the update counts MySQL sends for START TRANSACTION and COMMIT.
+
+	private final ProjectDao dao = new ProjectDao();
+
+	@BeforeAll
+	static void createProject() {
+		TestDatabase.createSchema();
+
+		TestDatabase.execute("INSERT INTO project (project_id, project_name, estimated_hours, "
+				+ "difficulty, notes) VALUES (1, 'Build a shed', 20.50, 4, 'Check the permit')");
+		TestDatabase.execute("INSERT INTO material (project_id, material_name, num_required, cost) "
+				+ "VALUES (1, 'Plywood', 12, 38.75), (1, 'Nails', 500, 0.02)");
+		TestDatabase.execute("INSERT INTO step (project_id, step_text, step_order) "
+				+ "VALUES (1, 'Frame the walls', 2), (1, 'Pour the slab', 1)");
+		TestDatabase.execute("INSERT INTO category (category_id, category_name) "
+				+ "VALUES (201, 'Outdoor'), (202, 'Carpentry')");
+		TestDatabase.execute("INSERT INTO project_category (project_id, category_id) "
+				+ "VALUES (1, 202), (1, 201)");
+
+		CategoryDictionary.getInstance().refresh();
+	}
+
+	@Test
+	void roundTripResultsMatchSeparateQueries() throws SQLException {
+		Project expected = dao.fetchProjectId(1, AggregateLoadMode.SEPARATE_QUERIES).orElseThrow();
+
+		assertEquals(expected.toString(), readRoundTrip(1).toString());
+		assertEquals(2, expected.getMaterials().size());
+		assertEquals(2, expected.getSteps().size());
+		assertEquals(2, expected.getCategories().size());
+	}
+
+	@Test
+	void parallelLoadMatchesSeparateQueriesWhileNothingIsWritten() {
+		//PARALLEL reads no single snapshot, so they match only with no writes in between
+		Project expected = dao.fetchProjectId(1, AggregateLoadMode.SEPARATE_QUERIES).orElseThrow();
+
+		assertEquals(expected.toString(),
+				dao.fetchProjectId(1, AggregateLoadMode.PARALLEL).orElseThrow().toString());
+		assertTrue(dao.fetchProjectId(99, AggregateLoadMode.PARALLEL).isEmpty());
+	}
+
+	@Test
+	void roundTripForAMissingProjectIsNull() throws SQLException {
+		assertNull(readRoundTrip(99));
+	}
+
+	private Project readRoundTrip(int projectId) throws SQLException {
+		try(Connection conn = DbConnection.getConnection()){
+			List<Object> results = new ArrayList<>();
+			List<Statement> statements = new ArrayList<>();
+
+			results.add(0);
+
+			for(String sql : List.of(ProjectDao.FETCH_PROJECT_SQL, ProjectDao.FETCH_MATERIALS_SQL,
+					ProjectDao.FETCH_STEPS_SQL, ProjectDao.FETCH_CATEGORIES_SQL)) {
+				PreparedStatement stmt = conn.prepareStatement(sql);
+				stmt.setInt(1, projectId);
+				statements.add(stmt);
+				results.add(stmt.executeQuery());
+			}
+
+			results.add(0);
+
+			try {
+				return dao.readProjectResults(conn, results(results), false);
+			}
+			finally {
+				for(Statement stmt : statements) {
+					stmt.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A statement whose results are the given update counts (Integer) and
+	 * result sets, in order.
+	 */
+	private static Statement results(List<Object> results) {
+		int[] current = {0};
+
+		return (Statement)Proxy.newProxyInstance(Statement.class.getClassLoader(),
+				new Class<?>[] {Statement.class}, (proxy, method, args) -> {
+					Object result = current[0] < results.size() ? results.get(current[0]) : null;
+
+					switch(method.getName()) {
+					case "getResultSet":
+						return result instanceof ResultSet ? result : null;
+
+					case "getUpdateCount":
+						return result instanceof Integer ? result : -1;
+
+					case "getMoreResults":
+						current[0]++;
+						return current[0] < results.size() && results.get(current[0]) instanceof ResultSet;
+
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+}
@@ -0,0 +1,120 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import projects.exception.DbException;
+
+class SchemaMigratorTest {
+
+	@Test
+	void splitsOnTheSemicolonsThatEndLines() {
+		String script = "-- Adds two tables\n"
+				+ "\n"
+				+ "CREATE TABLE a (\n"
+				+ "  id INT\n"
+				+ ");\n"
+				+ "  -- an indented comment\n"
+				+ "CREATE TABLE b (id INT);\n";
+
+		assertEquals(List.of("CREATE TABLE a (\n  id INT\n)", "CREATE TABLE b (id INT)"),
+				SchemaMigrator.splitStatements(script));
+	}
+
+	@Test
+	void keepsALastStatementWithoutASemicolon() {
+		assertEquals(List.of("DROP TABLE a", "DROP TABLE b"),
+				SchemaMigrator.splitStatements("DROP TABLE a;\r\nDROP TABLE b\r\n"));
+	}
+
+	@Test
+	void semicolonInsideALineDoesNotSplit() {
+		assertEquals(List.of("INSERT INTO t VALUES ('a;b')"),
+				SchemaMigrator.splitStatements("INSERT INTO t VALUES ('a;b');"));
+	}
+
+	@Test
+	void emptyScriptHasNoStatements() {
+		assertTrue(SchemaMigrator.splitStatements("-- nothing yet\n\n").isEmpty());
+	}
+
+	@Test
+	void descriptionIsTheFirstComment() {
+		assertEquals("Adds two tables", SchemaMigrator.description("-- Adds two tables\nSELECT 1;"));
+		assertEquals("", SchemaMigrator.description("SELECT 1;"));
+	}
+
+	@Test
+	void checksumIgnoresLineEndingsButNotContent() {
+		String script = "CREATE TABLE a (id INT);\nCREATE TABLE b (id INT);\n";
+
+		assertEquals(SchemaMigrator.checksum(script),
+				SchemaMigrator.checksum(script.replace("\n", "\r\n")));
+		assertNotEquals(SchemaMigrator.checksum(script),
+				SchemaMigrator.checksum(script.replace("b (", "c (")));
+	}
+
+	@Test
+	void shippedScriptsAreNumberedWithoutGapsAndSplitCleanly() {
+		int version = 1;
+
+		for(String script; (script = SchemaMigrator.readScript(version)) != null; version++) {
+			assertFalse(SchemaMigrator.description(script).isEmpty(), "V" + version);
+
+			List<String> statements = SchemaMigrator.splitStatements(script);
+			assertFalse(statements.isEmpty(), "V" + version);
+
+			for(String sql : statements) {
+				assertFalse(sql.isBlank() || sql.endsWith(";"), "V" + version + ": " + sql);
+			}
+		}
+
+		assertTrue(version > 1);
+		assertNull(SchemaMigrator.readScript(version + 1));
+	}
+
+	@Test
+	void triggerRefusedForWantOfSuperSaysWhatIsNeeded() {
+		Connection conn = failingWith(1419);
+
+		DbException e = assertThrows(DbException.class,
+				() -> new SchemaMigrator().execute(conn, 4, "CREATE TRIGGER t"));
+
+		assertTrue(e.getMessage().contains("V4"));
+		assertTrue(e.getMessage().contains("log_bin_trust_function_creators"));
+	}
+
+	@Test
+	void existingTriggerCountsAsDone() throws SQLException {
+		new SchemaMigrator().execute(failingWith(1359), 4, "CREATE TRIGGER t");
+	}
+
+	/**
+	 * A connection whose statements fail with the given MySQL error code.
+	 */
+	private static Connection failingWith(int errorCode) {
+		Statement stmt = (Statement)Proxy.newProxyInstance(Statement.class.getClassLoader(),
+				new Class<?>[] {Statement.class}, (proxy, method, args) -> {
+					if(method.getName().equals("execute")) {
+						throw new SQLException("refused", "HY000", errorCode);
+					}
+					return null;
+				});
+
+		return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] {Connection.class}, (proxy, method, args) -> stmt);
+	}
+
+}
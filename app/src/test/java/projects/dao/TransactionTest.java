@@ -0,0 +1,120 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import projects.exception.DbException;
+
+class TransactionTest {
+
+	@BeforeEach
+	void setUp() {
+		execute("CREATE TABLE IF NOT EXISTS tx_test (id INT)");
+		execute("DELETE FROM tx_test");
+	}
+
+	@Test
+	void commitsOnceAtTheEnd() {
+		List<String> events = new ArrayList<>();
+
+		DbConnection.inTransaction(false, () -> {
+			execute("INSERT INTO tx_test VALUES (1)");
+			DbConnection.afterCommit(() -> events.add("after commit"));
+			assertTrue(events.isEmpty());
+			return null;
+		});
+
+		assertEquals(List.of("after commit"), events);
+		assertEquals(1, count());
+	}
+
+	@Test
+	void failingAfterCommitActionDoesNotFailTheTransaction() {
+		List<String> events = new ArrayList<>();
+
+		Integer result = DbConnection.inTransaction(false, () -> {
+			execute("INSERT INTO tx_test VALUES (1)");
+			DbConnection.afterCommit(() -> {
+				throw new IllegalStateException("action fails");
+			});
+			DbConnection.afterCommit(() -> events.add("second action"));
+			return 1;
+		});
+
+		assertEquals(1, result);
+		assertEquals(List.of("second action"), events);
+		assertEquals(1, count());
+	}
+
+	@Test
+	void rollsBackWhenTheWorkThrows() {
+		assertThrows(IllegalStateException.class, () -> DbConnection.inTransaction(false, () -> {
+			execute("INSERT INTO tx_test VALUES (1)");
+			throw new IllegalStateException("fails");
+		}));
+
+		assertEquals(0, count());
+	}
+
+	@Test
+	void caughtFailureOfNestedWorkStillRollsBackTheOuterTransaction() {
+		List<String> events = new ArrayList<>();
+
+		assertThrows(DbException.class, () -> DbConnection.inTransaction(false, () -> {
+			execute("INSERT INTO tx_test VALUES (1)");
+			DbConnection.afterCommit(() -> events.add("after commit"));
+
+			try {
+				DbConnection.inTransaction(false, () -> {
+					throw new IllegalStateException("inner fails");
+				});
+			}
+			catch(IllegalStateException e) {
+				//the caller carries on as if nothing happened
+			}
+
+			return null;
+		}));
+
+		assertEquals(0, count());
+		assertTrue(events.isEmpty());
+	}
+
+	@Test
+	void readWriteCannotRunInsideReadOnly() {
+		assertThrows(DbException.class, () -> DbConnection.inTransaction(true,
+				() -> DbConnection.inTransaction(false, () -> null)));
+	}
+
+	private static void execute(String sql) {
+		try(Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement()){
+			stmt.execute(sql);
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	private static int count() {
+		try(Connection conn = DbConnection.getConnection(); Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM tx_test")){
+			rs.next();
+			return rs.getInt(1);
+		}
+		catch(SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+}
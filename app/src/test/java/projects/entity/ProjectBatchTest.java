@@ -0,0 +1,74 @@
+package projects.entity;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class ProjectBatchTest {
+
+  @Test
+  void sumsSkipMissingHours() {
+    ProjectBatch batch = new ProjectBatch(3);
+    batch.add(1, 2, 150, ProjectBatch.NONE, 1000);
+    batch.add(2, 3, ProjectBatch.NONE, 250, 25);
+    batch.add(3, 3, 100, 100, 0);
+
+    assertTrue(batch.isFull());
+    assertEquals(250, batch.sumEstimatedHours());
+    assertEquals(350, batch.sumActualHours());
+    assertEquals(1025, batch.sumMaterialCost());
+    assertEquals(new BigDecimal("10.25"), ProjectBatch.toDecimal(batch.sumMaterialCost()));
+  }
+
+  @Test
+  void minAndMaxIgnoreMissingDifficulty() {
+    ProjectBatch batch = new ProjectBatch(4);
+
+    assertEquals(ProjectBatch.NO_DIFFICULTY, batch.minDifficulty());
+    assertEquals(ProjectBatch.NO_DIFFICULTY, batch.maxDifficulty());
+
+    batch.add(1, ProjectBatch.NO_DIFFICULTY, 0, 0, 0);
+    batch.add(2, -2, 0, 0, 0);
+    batch.add(3, 0, 0, 0, 0);
+    batch.add(4, 4, 0, 0, 0);
+
+    assertEquals(-2, batch.minDifficulty());
+    assertEquals(4, batch.maxDifficulty());
+  }
+
+  @Test
+  void effortGroupsAreOffsetByTheLowestDifficulty() {
+    ProjectBatch batch = new ProjectBatch(5);
+    batch.add(1, ProjectBatch.NO_DIFFICULTY, 100, 200, 0);
+    batch.add(2, 0, 300, 400, 0);
+    batch.add(3, -1, 10, 20, 0);
+    batch.add(4, 0, 1, 2, 0);
+    batch.add(5, 1, 50, ProjectBatch.NONE, 0);
+
+    long[] count = new long[4];
+    long[] estimated = new long[4];
+    long[] actual = new long[4];
+
+    batch.addEffortByDifficulty(-1, count, estimated, actual);
+
+    //slots: none, -1, 0, 1
+    assertArrayEquals(new long[] {1, 1, 2, 0}, count);
+    assertArrayEquals(new long[] {100, 10, 301, 0}, estimated);
+    assertArrayEquals(new long[] {200, 20, 402, 0}, actual);
+  }
+
+  @Test
+  void clearMakesRoomForTheNextRows() {
+    ProjectBatch batch = new ProjectBatch(1);
+    batch.add(1, 1, 1, 1, 1);
+    batch.clear();
+
+    assertEquals(0, batch.size());
+    assertEquals(0, batch.sumMaterialCost());
+  }
+
+}
@@ -0,0 +1,72 @@
+package projects.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import projects.exception.DbException;
+
+class CsvReaderTest {
+
+	@Test
+	void readsPlainRecords() throws IOException {
+		CsvReader csv = reader("a,b,c\n1,2,3\n");
+
+		assertEquals(List.of("a", "b", "c"), csv.readRecord());
+		assertEquals(List.of("1", "2", "3"), csv.readRecord());
+		assertNull(csv.readRecord());
+	}
+
+	@Test
+	void keepsEmptyFieldsAndSpaces() throws IOException {
+		CsvReader csv = reader(" a ,,\n");
+
+		assertEquals(List.of(" a ", "", ""), csv.readRecord());
+	}
+
+	@Test
+	void quotedFieldsHoldCommasQuotesAndLineBreaks() throws IOException {
+		CsvReader csv = reader("\"x, y\",\"say \"\"hi\"\"\",\"two\nlines\"\nnext\n");
+
+		assertEquals(List.of("x, y", "say \"hi\"", "two\nlines"), csv.readRecord());
+		assertEquals(1, csv.getLineNumber());
+		assertEquals(List.of("next"), csv.readRecord());
+		assertEquals(3, csv.getLineNumber());
+	}
+
+	@Test
+	void skipsBlankLinesAndCarriageReturns() throws IOException {
+		CsvReader csv = reader("a,b\r\n\r\n\nc,d");
+
+		assertEquals(List.of("a", "b"), csv.readRecord());
+		assertEquals(List.of("c", "d"), csv.readRecord());
+		assertEquals(4, csv.getLineNumber());
+		assertNull(csv.readRecord());
+	}
+
+	@Test
+	void emptyQuotedFieldIsARecord() throws IOException {
+		CsvReader csv = reader("\"\"\n");
+
+		assertEquals(List.of(""), csv.readRecord());
+		assertNull(csv.readRecord());
+	}
+
+	@Test
+	void unterminatedQuoteFails() {
+		CsvReader csv = reader("a,\"never closed\n");
+
+		assertThrows(DbException.class, csv::readRecord);
+	}
+
+	private static CsvReader reader(String text) {
+		return new CsvReader(new StringReader(text));
+	}
+
+}
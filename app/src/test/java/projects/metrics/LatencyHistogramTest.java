@@ -0,0 +1,100 @@
+package projects.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+	@Test
+	void everyValueLandsInABucketThatContainsIt() {
+		Random random = new Random(1);
+
+		for(int i = 0; i < 100_000; i++) {
+			long value = random.nextLong() >>> (1 + random.nextInt(63));
+			int bucket = LatencyHistogram.bucketFor(value);
+
+			assertTrue(value <= LatencyHistogram.highestValueIn(bucket), "value " + value);
+			assertTrue(bucket == 0 || value > LatencyHistogram.highestValueIn(bucket - 1),
+					"value " + value);
+		}
+	}
+
+	@Test
+	void smallValuesAreExact() {
+		for(long value = 0; value < 16; value++) {
+			assertEquals(value, LatencyHistogram.highestValueIn(LatencyHistogram.bucketFor(value)));
+		}
+	}
+
+	@Test
+	void bucketsAreAtMostOneSixteenthWide() {
+		for(int bucket = 16; LatencyHistogram.highestValueIn(bucket) < Long.MAX_VALUE / 2; bucket++) {
+			long lowest = LatencyHistogram.highestValueIn(bucket - 1) + 1;
+			long width = LatencyHistogram.highestValueIn(bucket) - lowest + 1;
+
+			assertTrue(width * 16 <= lowest, "bucket " + bucket);
+		}
+	}
+
+	@Test
+	void percentilesAreWithinTheBucketError() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+
+		for(long micros = 1; micros <= 1000; micros++) {
+			histogram.record(micros * 1000);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertWithin(500_000, histogram.getPercentileNanos(50));
+		assertWithin(990_000, histogram.getPercentileNanos(99));
+		assertEquals(1_000_000, histogram.getPercentileNanos(100));
+		assertEquals(1000, histogram.getMaxMicros());
+		assertEquals(500.5, histogram.getMeanMicros(), 0.001);
+	}
+
+	@Test
+	void resetClearsEverything() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		histogram.record(5000);
+		histogram.reset();
+
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentileNanos(99));
+		assertEquals(0, histogram.getMaxMicros());
+	}
+
+	@Test
+	void concurrentRecordingsAreAllCounted() throws InterruptedException {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		CountDownLatch done = new CountDownLatch(8);
+
+		for(int t = 0; t < 8; t++) {
+			pool.execute(() -> {
+				for(int i = 0; i < 10_000; i++) {
+					histogram.record(i);
+				}
+				done.countDown();
+			});
+		}
+
+		done.await();
+		pool.shutdown();
+
+		assertEquals(80_000, histogram.getCount());
+		assertEquals(9999, histogram.getPercentileNanos(100));
+	}
+
+	private static void assertWithin(long expected, long actual) {
+		assertTrue(Math.abs(actual - expected) <= expected / 16, "expected about " + expected
+				+ " but was " + actual);
+	}
+
+}
@@ -0,0 +1,88 @@
+package projects.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.h2.tools.SimpleResultSet;
+import org.junit.jupiter.api.Test;
+
+import projects.dao.ReportDao;
+import projects.entity.EffortRollup;
+import projects.entity.ProjectBatch;
+import projects.service.ReportService.DifficultyTotals;
+
+class DifficultyTotalsTest {
+
+	@Test
+	void nullDifficultyIsApartFromZero() throws SQLException {
+		SimpleResultSet rs = projects();
+		rs.addRow(1, null, 100L, 200L, 0L);
+		rs.addRow(2, 0, 300L, 400L, 0L);
+
+		assertEquals(List.of("none 1 1.00 2.00", "0 1 3.00 4.00"), rows(rs, 10));
+	}
+
+	@Test
+	void rangeGrowsDownAndUpAcrossBatches() throws SQLException {
+		SimpleResultSet rs = projects();
+		rs.addRow(1, 3, 100L, 100L, 0L);
+		rs.addRow(2, 3, 100L, 100L, 0L);
+		rs.addRow(3, -2, 100L, 300L, 0L);
+		rs.addRow(4, null, 100L, 100L, 0L);
+		rs.addRow(5, 7, 100L, null, 0L);
+		rs.addRow(6, 5, 50L, 25L, 0L);
+
+		//batches of two, so every batch moves the range
+		assertEquals(List.of("none 1 1.00 1.00", "-2 1 1.00 3.00", "3 2 2.00 2.00",
+				"5 1 0.50 0.25"), rows(rs, 2));
+	}
+
+	@Test
+	void difficultiesTooFarApartAreLeftToTheDatabase() throws SQLException {
+		SimpleResultSet rs = projects();
+		rs.addRow(1, Integer.MIN_VALUE + 1, 100L, 100L, 0L);
+		rs.addRow(2, Integer.MAX_VALUE, 100L, 100L, 0L);
+
+		DifficultyTotals totals = new DifficultyTotals();
+		ProjectBatch batch = new ProjectBatch(10);
+
+		while(ReportDao.fill(rs, batch)) {
+			totals.add(batch);
+		}
+
+		assertTrue(totals.isTooSparse());
+	}
+
+	private static List<String> rows(SimpleResultSet rs, int batchRows) throws SQLException {
+		DifficultyTotals totals = new DifficultyTotals();
+		ProjectBatch batch = new ProjectBatch(batchRows);
+
+		while(ReportDao.fill(rs, batch)) {
+			totals.add(batch);
+		}
+
+		return totals.toRows().stream().map(DifficultyTotalsTest::format).collect(Collectors.toList());
+	}
+
+	private static String format(EffortRollup row) {
+		return row.getGroupName() + " " + row.getProjectCount() + " " + row.getEstimatedHours() + " "
+				+ row.getActualHours();
+	}
+
+	//the columns of ReportDao.PROJECT_BATCH_SQL
+	private static SimpleResultSet projects() {
+		SimpleResultSet rs = new SimpleResultSet();
+		rs.addColumn("project_id", Types.INTEGER, 10, 0);
+		rs.addColumn("difficulty", Types.INTEGER, 10, 0);
+		rs.addColumn("estimated_hundredths", Types.BIGINT, 19, 0);
+		rs.addColumn("actual_hundredths", Types.BIGINT, 19, 0);
+		rs.addColumn("cost_hundredths", Types.BIGINT, 19, 0);
+		return rs;
+	}
+
+}
@@ -0,0 +1,156 @@
+package projects.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import projects.entity.Project;
+
+class ProjectCacheTest {
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	//stands in for the DAO: every call is a "database read"
+	private final Function<Integer, Optional<Project>> loader = projectId -> {
+		loads.incrementAndGet();
+		return Optional.of(project(projectId, "Project " + projectId));
+	};
+
+	@Test
+	void servesSecondReadFromCache() {
+		ProjectCache cache = new ProjectCache(10, 60000);
+
+		cache.get(1, loader);
+		cache.get(1, loader);
+
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getStats().getHits());
+		assertEquals(1, cache.getStats().getMisses());
+	}
+
+	@Test
+	void returnsCopiesSoCallersCannotChangeTheCachedProject() {
+		ProjectCache cache = new ProjectCache(10, 60000);
+
+		cache.get(1, loader).orElseThrow().setProjectName("changed by caller");
+
+		assertEquals("Project 1", cache.get(1, loader).orElseThrow().getProjectName());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedWhenFull() {
+		ProjectCache cache = new ProjectCache(2, 60000);
+
+		cache.get(1, loader);
+		cache.get(2, loader);
+		cache.get(1, loader);
+		cache.get(3, loader);
+
+		//2 was used least recently, so it went when 3 came in
+		loads.set(0);
+		cache.get(1, loader);
+		cache.get(3, loader);
+		assertEquals(0, loads.get());
+
+		cache.get(2, loader);
+		assertEquals(1, loads.get());
+		assertTrue(cache.getStats().getEvictions() >= 1);
+	}
+
+	@Test
+	void doesNotCacheALoadThatOverlappedAWrite() {
+		ProjectCache cache = new ProjectCache(10, 60000);
+
+		//the write lands while the old row is being read
+		cache.get(1, projectId -> {
+			cache.invalidate(projectId);
+			return loader.apply(projectId);
+		});
+
+		cache.get(1, loader);
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void cachesALoadThatOverlappedAWriteToAnotherProject() {
+		ProjectCache cache = new ProjectCache(10, 60000);
+
+		cache.get(1, projectId -> {
+			cache.invalidate(2);
+			cache.updateDetails(project(3, "Renamed"), Set.of("projectName"));
+			return loader.apply(projectId);
+		});
+
+		cache.get(1, loader);
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void reloadsExpiredEntries() throws InterruptedException {
+		ProjectCache cache = new ProjectCache(10, 1);
+
+		cache.get(1, loader);
+		Thread.sleep(5);
+		cache.get(1, loader);
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void sizeZeroTurnsCachingOff() {
+		ProjectCache cache = new ProjectCache(0, 60000);
+
+		cache.get(1, loader);
+		cache.get(1, loader);
+
+		assertEquals(2, loads.get());
+		assertEquals(0, cache.getStats().getSize());
+	}
+
+	@Test
+	void invalidateDropsTheEntry() {
+		ProjectCache cache = new ProjectCache(10, 60000);
+
+		cache.get(1, loader);
+		cache.invalidate(1);
+		cache.get(1, loader);
+
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void updateDetailsPatchesOnlyTheNamedFields() {
+		ProjectCache cache = new ProjectCache(10, 60000);
+		cache.get(1, loader);
+
+		//actual hours written elsewhere since the caller read the project
+		Project stale = project(1, "renamed");
+		stale.setActualHours(new BigDecimal("1.00"));
+
+		cache.updateDetails(stale, Set.of("projectName"));
+
+		Project cached = cache.get(1, loader).orElseThrow();
+		assertEquals("renamed", cached.getProjectName());
+		assertNull(cached.getActualHours());
+		assertEquals(1, loads.get());
+	}
+
+	static Project project(Integer projectId, String name) {
+		Project project = new Project();
+		project.setProjectId(projectId);
+		project.setProjectName(name);
+		project.clearChanges();
+		return project;
+	}
+
+}
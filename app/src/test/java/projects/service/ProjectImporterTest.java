@@ -0,0 +1,123 @@
+package projects.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import projects.TestDatabase;
+
+import projects.dao.ProjectDao;
+import projects.exception.DbException;
+import projects.service.ProjectImporter.Progress;
+
+class ProjectImporterTest {
+
+	@TempDir
+	Path dir;
+
+	@BeforeAll
+	static void createSchema() {
+		TestDatabase.createSchema();
+	}
+
+	@BeforeEach
+	void setUp() {
+		TestDatabase.execute("DELETE FROM project");
+	}
+
+	@Test
+	void importsProjectsWithTheirChildren() throws IOException {
+		Path file = write("type,key,name,estimated_hours,actual_hours,difficulty,notes\n"
+				+ "project,p1,Hang a door,4,3,3,Use the old hinges\n"
+				+ "material,p1,Door hanger,4,12.50\n"
+				+ "step,p1,Align the hangers,\n"
+				+ "step,p1,Hang the door,\n"
+				+ "category,p1,Importer Doors\n"
+				+ "project,p2,Paint a wall,,,,\n");
+
+		Progress progress = importer(100).importFile(file, p -> {});
+
+		assertEquals(2, progress.getProjects());
+		assertEquals(6, progress.getRows());
+		assertEquals(2, TestDatabase.queryLong("SELECT COUNT(*) FROM project"));
+		assertEquals(1, TestDatabase.queryLong("SELECT COUNT(*) FROM material"));
+		assertEquals(2, TestDatabase.queryLong("SELECT MAX(step_order) FROM step"));
+	}
+
+	@Test
+	void keepsTextAsWrittenAndTrimsOnlyTypeKeyAndNumbers() throws IOException {
+		Path file = write(" project , p1 ,  Padded name  , 4 ,,,  indented notes\n");
+
+		importer(100).importFile(file, p -> {});
+
+		assertEquals(1, TestDatabase.queryLong("SELECT COUNT(*) FROM project WHERE project_name = '  Padded name  '"
+				+ " AND notes = '  indented notes' AND estimated_hours = 4"));
+	}
+
+	@Test
+	void repeatedCategoryIsAddedOnce() throws IOException {
+		Path file = write("project,p1,Shelf,,,,\n"
+				+ "category,p1,Importer Shelves\n"
+				+ "category,p1,Importer Shelves\n");
+
+		Progress progress = importer(100).importFile(file, p -> {});
+
+		assertEquals(3, progress.getRecords());
+		assertEquals(1, TestDatabase.queryLong("SELECT COUNT(*) FROM project_category pc JOIN category c"
+				+ " ON c.category_id = pc.category_id WHERE c.category_name = 'Importer Shelves'"));
+	}
+
+	@Test
+	void resumesFromTheCheckpointAfterAFailedBatch() throws IOException {
+		String good = "project,p1,One,,,,\n"
+				+ "step,p1,First,\n"
+				+ "project,p2,Two,,,,\n"
+				+ "project,p3,Three,,,,\n";
+		Path file = write(good + "step,p2,Out of place,\n");
+		Path checkpoint = dir.resolve("projects.csv.checkpoint");
+
+		//batches of one row: each project commits before the next starts
+		assertThrows(DbException.class, () -> importer(1).importFile(file, p -> {}));
+
+		assertEquals(2, TestDatabase.queryLong("SELECT COUNT(*) FROM project"));
+		assertEquals("3", Files.readString(checkpoint));
+
+		Files.writeString(file, good);
+		Progress progress = importer(1).importFile(file, p -> {});
+
+		assertEquals(1, progress.getProjects());
+		assertEquals(4, progress.getRecords());
+		assertEquals(3, TestDatabase.queryLong("SELECT COUNT(*) FROM project"));
+		assertFalse(Files.exists(checkpoint));
+	}
+
+	@Test
+	void badNumberNamesTheLine() throws IOException {
+		Path file = write("project,p1,One,,,,\nproject,p2,Two,lots,,,\n");
+
+		DbException e = assertThrows(DbException.class, () -> importer(100).importFile(file, p -> {}));
+
+		assertTrue(e.getMessage().startsWith("Line 2:"), e.getMessage());
+	}
+
+	private Path write(String text) throws IOException {
+		Path file = dir.resolve("projects.csv");
+		Files.writeString(file, text);
+		return file;
+	}
+
+	private static ProjectImporter importer(int batchRows) {
+		return new ProjectImporter(new ProjectDao(), batchRows);
+	}
+
+}
@@ -0,0 +1,137 @@
+package projects.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import projects.entity.Page;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+
+class SearchIndexTest {
+
+	private final SearchIndex index = new SearchIndex();
+
+	@Test
+	void moreOccurrencesRankHigher() {
+		index.put(project(1, "Paint the fence"));
+		index.put(project(2, "Paint the fence, paint the gate, paint the shed"));
+
+		assertEquals(List.of(2, 1), ids(index.search("paint", 0, 10)));
+	}
+
+	@Test
+	void rareWordsCountForMore() {
+		index.put(project(1, "common rare"));
+		index.put(project(2, "common"));
+		index.put(project(3, "common common"));
+
+		assertEquals(List.of(1, 3, 2), ids(index.search("common rare", 0, 10)));
+	}
+
+	@Test
+	void tiesAreInProjectIdOrder() {
+		index.put(project(3, "Sand the deck"));
+		index.put(project(1, "Sand the floor"));
+		index.put(project(2, "Sand the door"));
+
+		assertEquals(List.of(1, 2, 3), ids(index.search("SAND", 0, 10)));
+	}
+
+	@Test
+	void shortAndStopWordsAreNotIndexed() {
+		index.put(project(1, "How to do it with the old saw"));
+
+		assertTrue(index.search("how to do it with the", 0, 10).isEmpty());
+		assertEquals(List.of(1), ids(index.search("saw", 0, 10)));
+	}
+
+	@Test
+	void changedNotesReplaceTheOldWords() {
+		index.put(project(3, "Paint the fence"));
+		index.putDetails(project(3, "Stain the fence"));
+		index.putDetails(project(3, "Stain the fence"));
+
+		index.put(project(1, "Stain the deck"));
+		index.put(project(2, "Stain"));
+
+		assertTrue(index.search("paint", 0, 10).isEmpty());
+		//applied twice, but counted once: all three have "stain" once
+		assertEquals(List.of(1, 2, 3), ids(index.search("stain", 0, 10)));
+	}
+
+	@Test
+	void stepsAreSearchedAndReplacedById() {
+		Project project = project(1, null);
+		project.getSteps().add(step(10, "Measure the opening"));
+		project.getSteps().add(step(11, "Cut the trim"));
+		index.put(project);
+
+		assertEquals(List.of(1), ids(index.search("opening", 0, 10)));
+
+		index.putSteps(1, List.of(step(10, "Measure the wall")));
+
+		assertTrue(index.search("opening", 0, 10).isEmpty());
+		assertEquals(List.of(1), ids(index.search("wall trim", 0, 10)));
+	}
+
+	@Test
+	void removeTakesTheProjectOutCompletely() {
+		Project project = project(1, "Fix the hinge");
+		project.getSteps().add(step(10, "Tighten the hinge screws"));
+		index.put(project);
+		index.put(project(2, "Oil the hinge"));
+
+		index.remove(1);
+		index.remove(1);
+
+		assertEquals(1, index.size());
+		assertTrue(index.search("screws", 0, 10).isEmpty());
+		assertEquals(List.of(2), ids(index.search("hinge", 0, 10)));
+	}
+
+	@Test
+	void pagesThroughTheMatches() {
+		for(int projectId = 1; projectId <= 5; projectId++) {
+			index.put(project(projectId, "Build a birdhouse"));
+		}
+
+		Page<ProjectSummary> first = index.search("birdhouse", 0, 2);
+		Page<ProjectSummary> second = index.search("birdhouse", 2, 2);
+		Page<ProjectSummary> last = index.search("birdhouse", 4, 2);
+
+		assertEquals(List.of(1, 2), ids(first));
+		assertTrue(first.hasMore());
+		assertEquals(List.of(3, 4), ids(second));
+		assertTrue(second.hasMore());
+		assertEquals(List.of(5), ids(last));
+		assertFalse(last.hasMore());
+		assertEquals("Project 5", last.getLast().getProjectName());
+	}
+
+	private static List<Integer> ids(Page<ProjectSummary> page) {
+		return page.getItems().stream().map(ProjectSummary::getProjectId).collect(Collectors.toList());
+	}
+
+	private static Project project(Integer projectId, String notes) {
+		Project project = new Project();
+		project.setProjectId(projectId);
+		project.setProjectName("Project " + projectId);
+		project.setNotes(notes);
+		return project;
+	}
+
+	private static Step step(Integer stepId, String text) {
+		Step step = new Step();
+		step.setStepId(stepId);
+		step.setStepText(text);
+		return step;
+	}
+
+}
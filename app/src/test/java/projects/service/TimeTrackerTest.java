@@ -0,0 +1,138 @@
+package projects.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import projects.TestDatabase;
+import projects.dao.ProjectDao;
+import projects.exception.DbException;
+
+class TimeTrackerTest {
+
+	//no timed or size-triggered flushes: the tests flush themselves
+	private TimeTracker tracker = new TimeTracker(new ProjectDao(), 600_000, Integer.MAX_VALUE);
+
+	@BeforeAll
+	static void createSchema() {
+		TestDatabase.createSchema();
+	}
+
+	@BeforeEach
+	void setUp() {
+		TestDatabase.execute("DELETE FROM project");
+		TestDatabase.execute("INSERT INTO project (project_id, project_name, actual_hours) "
+				+ "VALUES (1, 'One', NULL), (2, 'Two', 2.50), (3, 'Full', 99999.00)");
+	}
+
+	@AfterEach
+	void tearDown() {
+		tracker.close();
+	}
+
+	@Test
+	void flushAddsTheCollectedHours() {
+		tracker.record(1, 150);
+		tracker.record(1, 25);
+		tracker.record(2, 100);
+
+		assertEquals(175, tracker.getPending(1));
+		assertEquals(2, tracker.flush());
+		assertEquals(0, tracker.getPending(1));
+		assertEquals(175, actualHundredths(1));
+		assertEquals(350, actualHundredths(2));
+		assertEquals(0, tracker.flush());
+	}
+
+	@Test
+	void entriesOutOfRangeAreRejected() {
+		assertThrows(DbException.class, () -> tracker.record(1, 0));
+		assertThrows(DbException.class, () -> tracker.record(1, -100));
+		assertThrows(DbException.class,
+				() -> tracker.record(1, TimeTracker.MAX_ENTRY_HUNDREDTHS + 1));
+
+		assertEquals(0, tracker.getPending(1));
+	}
+
+	@Test
+	void hoursTheColumnCannotHoldAreDroppedAndTheRestWritten() {
+		tracker.record(1, 100);
+		tracker.record(3, 500);
+
+		//project 3 would go over 99999.99
+		assertEquals(1, tracker.flush());
+		assertEquals(100, actualHundredths(1));
+		assertEquals(9_999_900, actualHundredths(3));
+		assertEquals(0, tracker.getPending(3));
+
+		tracker.record(2, 50);
+
+		assertEquals(1, tracker.flush());
+	}
+
+	@Test
+	void otherFailuresKeepTheHoursForTheNextFlush() {
+		AtomicInteger calls = new AtomicInteger();
+		DbException down = new DbException(new SQLException("Connection refused", "08001"));
+
+		tracker = new TimeTracker(new ProjectDao() {
+			@Override
+			public void addActualHours(Map<Integer, Long> hundredthsByProject) {
+				calls.incrementAndGet();
+				throw down;
+			}
+		}, 600_000, Integer.MAX_VALUE);
+
+		tracker.record(1, 100);
+		tracker.record(2, 200);
+
+		assertSame(down, assertThrows(DbException.class, tracker::flush));
+
+		//the batch and then the first project alone, not every project
+		assertEquals(2, calls.get());
+		assertEquals(100, tracker.getPending(1));
+		assertEquals(200, tracker.getPending(2));
+
+		//so closing it does not fail too
+		tracker.forget(1);
+		tracker.forget(2);
+	}
+
+	@Test
+	void flushDropsTheWrittenProjectsFromRegisteredCaches() {
+		ProjectCache cache = new ProjectCache(10, 600_000);
+		AtomicInteger loads = new AtomicInteger();
+
+		tracker.invalidateOnFlush(cache);
+		cache.get(1, projectId -> {
+			loads.incrementAndGet();
+			return Optional.of(ProjectCacheTest.project(projectId, "One"));
+		});
+
+		tracker.record(1, 100);
+		tracker.flush();
+
+		cache.get(1, projectId -> {
+			loads.incrementAndGet();
+			return Optional.empty();
+		});
+
+		assertEquals(2, loads.get());
+	}
+
+	private static long actualHundredths(int projectId) {
+		return TestDatabase.queryLong("SELECT actual_hours * 100 FROM project WHERE project_id = "
+				+ projectId);
+	}
+
+}
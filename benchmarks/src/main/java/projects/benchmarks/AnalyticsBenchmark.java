@@ -0,0 +1,88 @@
+package projects.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import projects.dao.ReportDao;
+import projects.entity.Project;
+import projects.entity.ProjectBatch;
+
+/**
+ * Adds up estimated and actual hours by difficulty over whole result sets, once by mapping each
+ * row to a Project and summing its BigDecimals, once by reading scaled columns into a reused
+ * ProjectBatch. Run with -prof gc to compare the allocation per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsBenchmark {
+
+	@Param({"10000"})
+	private int rows;
+
+	private BenchDao dao;
+	private SimpleResultSet projects;
+	private SimpleResultSet numbers;
+	private ProjectBatch batch;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dao = new BenchDao();
+		projects = Rows.projects(rows, 1);
+		numbers = Rows.projectNumbers(rows, 1);
+		batch = new ProjectBatch(4096);
+	}
+
+	@Benchmark
+	public BigDecimal[] effortFromProjects() throws SQLException {
+		BigDecimal[] totals = new BigDecimal[12];
+		Arrays.fill(totals, BigDecimal.ZERO);
+		projects.beforeFirst();
+
+		while(projects.next()) {
+			Project project = dao.extractRow(projects, Project.class);
+
+			if(project.getEstimatedHours() != null && project.getActualHours() != null) {
+				int group = project.getDifficulty() == null ? 0 : project.getDifficulty();
+				totals[group] = totals[group].add(project.getEstimatedHours());
+				totals[6 + group] = totals[6 + group].add(project.getActualHours());
+			}
+		}
+
+		return totals;
+	}
+
+	@Benchmark
+	public long[] effortFromBatches() throws SQLException {
+		long[] count = new long[6];
+		long[] estimated = new long[6];
+		long[] actual = new long[6];
+		numbers.beforeFirst();
+
+		while(ReportDao.fill(numbers, batch)) {
+			batch.addEffortByDifficulty(1, count, estimated, actual);
+		}
+
+		return actual;
+	}
+
+}
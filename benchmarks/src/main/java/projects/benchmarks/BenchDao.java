@@ -0,0 +1,27 @@
+package projects.benchmarks;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import provided.util.DaoBase;
+
+/**
+ * Opens up the protected DaoBase helpers so the benchmarks can call them directly.
+ */
+public class BenchDao extends DaoBase {
+
+	public <T> T extractRow(ResultSet rs, Class<T> classType) {
+		return extract(rs, classType);
+	}
+
+	public void bind(PreparedStatement stmt, int parameterIndex, Object value, Class<?> classType)
+			throws SQLException {
+		setParameter(stmt, parameterIndex, value, classType);
+	}
+
+	public static String toSnakeCase(String identifier) {
+		return camelCaseToSnakeCase(identifier);
+	}
+
+}
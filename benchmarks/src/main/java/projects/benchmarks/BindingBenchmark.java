@@ -0,0 +1,74 @@
+package projects.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures DaoBase.setParameter (and the convertJavaClassToSqlType lookup inside it) binding a
+ * project row, and camelCaseToSnakeCase. The statement is an in-memory H2 statement, so nothing is
+ * sent anywhere.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BindingBenchmark {
+
+	private BenchDao dao;
+	private Connection conn;
+	private PreparedStatement stmt;
+
+	private final String name = "Build a backyard deck";
+	private final BigDecimal estimatedHours = new BigDecimal("42.50");
+	private final Integer difficulty = 4;
+	private final String notes = Rows.text(new java.util.Random(5), 200, 200);
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		dao = new BenchDao();
+		conn = DriverManager.getConnection("jdbc:h2:mem:binding");
+		stmt = conn.prepareStatement("SELECT CAST(? AS VARCHAR), CAST(? AS DECIMAL(7,2)), "
+				+ "CAST(? AS DECIMAL(7,2)), CAST(? AS INT), CAST(? AS VARCHAR)");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		stmt.close();
+		conn.close();
+	}
+
+	@Benchmark
+	public PreparedStatement bindProjectRow() throws SQLException {
+		dao.bind(stmt, 1, name, String.class);
+		dao.bind(stmt, 2, estimatedHours, BigDecimal.class);
+		dao.bind(stmt, 3, null, BigDecimal.class);
+		dao.bind(stmt, 4, difficulty, Integer.class);
+		dao.bind(stmt, 5, notes, String.class);
+		return stmt;
+	}
+
+	@Benchmark
+	public String camelCaseToSnakeCase() {
+		return BenchDao.toSnakeCase("estimatedHours");
+	}
+
+}
@@ -0,0 +1,394 @@
+package projects.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import projects.entity.Project;
+import projects.service.ProjectService;
+
+/**
+ * End-to-end throughput and latency of ProjectService/ProjectDao with N concurrent clients running
+ * a mixed workload.
+ *
+ * By default it starts an in-memory H2 database in MySQL compatibility mode, creates the tables
+ * from projects-schema.sql and seeds it, so it runs anywhere. With --external it uses whatever
+ * database db.properties (or -Ddb.*) points at, for example a locally started mysqld.
+ *
+ * Results are printed per operation (ops/sec, p50/p99/p999 in microseconds). --save writes them
+ * to the baseline file; later runs print the change against that baseline.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar projects.benchmarks.DaoThroughputBenchmark \
+ *     --clients 8 --duration 30 --mix fetch=50,list=20,update=15,insert=10,delete=5
+ * </pre>
+ */
+public class DaoThroughputBenchmark {
+
+	enum Operation {
+		INSERT, FETCH, UPDATE, LIST, DELETE
+	}
+
+	private static final String H2_URL =
+			"jdbc:h2:mem:projects;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	private int clients = 4;
+	private int durationSec = 20;
+	private int warmupSec = 5;
+	private int seedProjects = 10000;
+	private int pageSize = 20;
+	private boolean external;
+	private boolean save;
+	private Path baselineFile = Paths.get("benchmarks", "baseline.csv");
+	private Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+	private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+
+	public static void main(String[] args) throws Exception {
+		DaoThroughputBenchmark benchmark = new DaoThroughputBenchmark();
+		benchmark.parseArgs(args);
+		benchmark.run();
+		System.exit(0);
+	}
+
+	private void parseArgs(String[] args) {
+		mix.put(Operation.FETCH, 50);
+		mix.put(Operation.LIST, 20);
+		mix.put(Operation.UPDATE, 15);
+		mix.put(Operation.INSERT, 10);
+		mix.put(Operation.DELETE, 5);
+
+		for(int idx = 0; idx < args.length; idx++) {
+			switch(args[idx]) {
+			case "--clients":
+				clients = Integer.parseInt(args[++idx]);
+				break;
+			case "--duration":
+				durationSec = Integer.parseInt(args[++idx]);
+				break;
+			case "--warmup":
+				warmupSec = Integer.parseInt(args[++idx]);
+				break;
+			case "--seed":
+				seedProjects = Integer.parseInt(args[++idx]);
+				break;
+			case "--page-size":
+				pageSize = Integer.parseInt(args[++idx]);
+				break;
+			case "--external":
+				external = true;
+				break;
+			case "--save":
+				save = true;
+				break;
+			case "--baseline":
+				baselineFile = Paths.get(args[++idx]);
+				break;
+			case "--mix":
+				mix.clear();
+				for(String part : args[++idx].split(",")) {
+					String[] pair = part.split("=");
+					mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[idx]);
+			}
+		}
+	}
+
+	private void run() throws Exception {
+		if(!external) {
+			startStandIn();
+		}
+
+		//size the pool to the clients and keep the cache out of the measurement
+		System.setProperty("db.pool.maxSize", String.valueOf(Math.max(clients, 2)));
+		System.setProperty("db.pool.minSize", "1");
+		System.setProperty("db.cache.maxSize", System.getProperty("db.cache.maxSize", "0"));
+
+		ProjectService service = new ProjectService();
+		List<Integer> seededIds = seed(service);
+
+		for(Operation op : Operation.values()) {
+			recorders.put(op, new Recorder(3));
+		}
+
+		System.out.printf("%d clients, %ds warmup, %ds measured, mix %s, %s%n", clients, warmupSec,
+				durationSec, mix, external ? "external database" : "H2 stand-in (MySQL mode)");
+
+		runClients(service, seededIds, warmupSec);
+
+		for(Recorder recorder : recorders.values()) {
+			recorder.reset();
+		}
+
+		long start = System.nanoTime();
+		runClients(service, seededIds, durationSec);
+		double elapsedSec = (System.nanoTime() - start) / 1e9;
+
+		Map<String, double[]> results = report(elapsedSec);
+
+		if(Files.exists(baselineFile)) {
+			compare(results, readBaseline());
+		}
+
+		if(save) {
+			writeBaseline(results);
+			System.out.println("Saved baseline to " + baselineFile);
+		}
+	}
+
+	/**
+	 * Creates the H2 database, loads the schema and points DbConnection at it.
+	 */
+	private void startStandIn() throws SQLException, IOException {
+		System.setProperty("db.url", H2_URL);
+
+		//H2 has no multi-statement requests, so the aggregate load uses separate queries
+		System.setProperty("db.aggregateLoadMode",
+				System.getProperty("db.aggregateLoadMode", "SEPARATE_QUERIES"));
+
+		String schema;
+
+		try(InputStream in = getClass().getClassLoader().getResourceAsStream("projects-schema.sql")) {
+			schema = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+
+		try(Connection conn = DriverManager.getConnection(H2_URL, "projects", "projects");
+				Statement stmt = conn.createStatement()) {
+			for(String sql : schema.split(";")) {
+				//H2 has no MySQL full-text indexes or SQL triggers; search and the
+				//rollup reports are not part of the mix
+				if(!sql.isBlank() && !sql.contains("FULLTEXT") && !sql.contains("TRIGGER")) {
+					stmt.execute(sql);
+				}
+			}
+		}
+	}
+
+	private List<Integer> seed(ProjectService service) {
+		Random random = new Random(42);
+		List<Project> projects = new ArrayList<>(seedProjects);
+
+		for(int idx = 0; idx < seedProjects; idx++) {
+			projects.add(newProject(random));
+		}
+
+		List<Integer> ids = new ArrayList<>(seedProjects);
+		long start = System.nanoTime();
+
+		for(Project project : service.addProjects(projects)) {
+			ids.add(project.getProjectId());
+		}
+
+		System.out.printf("Seeded %d projects in %d ms%n", seedProjects,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		return ids;
+	}
+
+	private void runClients(ProjectService service, List<Integer> seededIds, int seconds)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		CountDownLatch done = new CountDownLatch(clients);
+
+		for(int client = 0; client < clients; client++) {
+			long seed = client;
+
+			Thread thread = new Thread(() -> {
+				try {
+					runClient(service, seededIds, deadline, new Random(seed));
+				}
+				finally {
+					done.countDown();
+				}
+			}, "client-" + client);
+
+			thread.start();
+		}
+
+		done.await();
+	}
+
+	private void runClient(ProjectService service, List<Integer> seededIds, long deadline,
+			Random random) {
+		int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+		List<Integer> ownIds = new ArrayList<>();
+
+		while(System.nanoTime() < deadline) {
+			Operation op = pick(random, totalWeight);
+
+			//a client only deletes projects it inserted, so others never miss a seeded ID
+			if(op == Operation.DELETE && ownIds.isEmpty()) {
+				op = Operation.INSERT;
+			}
+
+			long start = System.nanoTime();
+
+			switch(op) {
+			case INSERT:
+				ownIds.add(service.addProject(newProject(random)).getProjectId());
+				break;
+
+			case FETCH:
+				service.fetchProjectbyId(seededIds.get(random.nextInt(seededIds.size())));
+				break;
+
+			case UPDATE:
+				Project project = newProject(random);
+				project.setProjectId(seededIds.get(random.nextInt(seededIds.size())));
+				service.modifyProjectDetails(project);
+				break;
+
+			case LIST:
+				service.fetchProjectSummaryPage(pageSize);
+				break;
+
+			case DELETE:
+				service.deleteProject(ownIds.remove(ownIds.size() - 1));
+				break;
+			}
+
+			recorders.get(op).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+		}
+	}
+
+	private Operation pick(Random random, int totalWeight) {
+		int ticket = random.nextInt(totalWeight);
+
+		for(Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+			ticket -= entry.getValue();
+
+			if(ticket < 0) {
+				return entry.getKey();
+			}
+		}
+
+		return Operation.FETCH;
+	}
+
+	private Project newProject(Random random) {
+		Project project = new Project();
+		project.setProjectName(Rows.text(random, 20, 40));
+		project.setEstimatedHours(Rows.hours(random));
+		project.setActualHours(Rows.hours(random));
+		project.setDifficulty(1 + random.nextInt(5));
+		project.setNotes(Rows.text(random, 100, 600));
+		return project;
+	}
+
+	/**
+	 * Prints one line per operation and returns {ops/sec, p50, p99, p999} keyed by operation.
+	 */
+	private Map<String, double[]> report(double elapsedSec) {
+		Map<String, double[]> results = new LinkedHashMap<>();
+		Histogram all = new Histogram(3);
+
+		System.out.printf("%n%-8s %12s %10s %10s %10s %10s%n", "op", "ops/sec", "p50 us", "p99 us",
+				"p999 us", "max us");
+
+		for(Operation op : Operation.values()) {
+			Histogram histogram = recorders.get(op).getIntervalHistogram();
+
+			if(histogram.getTotalCount() == 0) {
+				continue;
+			}
+
+			all.add(histogram);
+			results.put(op.name(), print(op.name(), histogram, elapsedSec));
+		}
+
+		results.put("ALL", print("ALL", all, elapsedSec));
+
+		return results;
+	}
+
+	private double[] print(String name, Histogram histogram, double elapsedSec) {
+		double[] row = {histogram.getTotalCount() / elapsedSec,
+				histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+				histogram.getValueAtPercentile(99.9)};
+
+		System.out.printf("%-8s %12.1f %10.0f %10.0f %10.0f %10d%n", name, row[0], row[1], row[2],
+				row[3], histogram.getMaxValue());
+
+		return row;
+	}
+
+	private void compare(Map<String, double[]> results, Map<String, double[]> baseline) {
+		System.out.printf("%nChange against %s (ops/sec higher is better, latency lower is better)%n",
+				baselineFile);
+		System.out.printf("%-8s %12s %10s %10s %10s%n", "op", "ops/sec", "p50", "p99", "p999");
+
+		for(Map.Entry<String, double[]> entry : results.entrySet()) {
+			double[] before = baseline.get(entry.getKey());
+
+			if(before == null) {
+				continue;
+			}
+
+			double[] after = entry.getValue();
+			System.out.printf("%-8s %+11.1f%% %+9.1f%% %+9.1f%% %+9.1f%%%n", entry.getKey(),
+					change(before[0], after[0]), change(before[1], after[1]),
+					change(before[2], after[2]), change(before[3], after[3]));
+		}
+	}
+
+	private double change(double before, double after) {
+		return before == 0 ? 0 : (after - before) * 100 / before;
+	}
+
+	private Map<String, double[]> readBaseline() throws IOException {
+		Map<String, double[]> baseline = new LinkedHashMap<>();
+
+		for(String line : Files.readAllLines(baselineFile)) {
+			if(line.startsWith("op,") || line.isBlank()) {
+				continue;
+			}
+
+			String[] fields = line.split(",");
+			double[] row = new double[4];
+
+			for(int idx = 0; idx < row.length; idx++) {
+				row[idx] = Double.parseDouble(fields[idx + 1]);
+			}
+
+			baseline.put(fields[0], row);
+		}
+
+		return baseline;
+	}
+
+	private void writeBaseline(Map<String, double[]> results) throws IOException {
+		StringBuilder csv = new StringBuilder("op,ops_per_sec,p50_us,p99_us,p999_us\n");
+
+		for(Map.Entry<String, double[]> entry : results.entrySet()) {
+			double[] row = entry.getValue();
+			csv.append(String.format("%s,%.1f,%.0f,%.0f,%.0f%n", entry.getKey(), row[0], row[1], row[2],
+					row[3]));
+		}
+
+		Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+		Files.writeString(baselineFile, csv);
+	}
+
+}
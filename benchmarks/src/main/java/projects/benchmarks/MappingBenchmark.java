@@ -0,0 +1,142 @@
+package projects.benchmarks;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/**
+ * Measures DaoBase.extract over whole result sets, and assembling Project graphs with their
+ * LinkedList children. Run with -prof gc to see the allocation rate per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+	@Param({"100", "10000"})
+	private int rows;
+
+	private BenchDao dao;
+	private SimpleResultSet projects;
+	private SimpleResultSet materials;
+	private SimpleResultSet steps;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dao = new BenchDao();
+		projects = Rows.projects(rows, 1);
+		materials = Rows.materials(rows, 2);
+		steps = Rows.steps(rows, 3);
+	}
+
+	@Benchmark
+	public List<Project> extractProjects() throws SQLException {
+		return extractAll(projects, Project.class);
+	}
+
+	@Benchmark
+	public List<Material> extractMaterials() throws SQLException {
+		return extractAll(materials, Material.class);
+	}
+
+	/**
+	 * One row from a new result set each time, so the per-result-set plan lookup is measured rather
+	 * than the per-row fast path.
+	 */
+	@Benchmark
+	public Project extractFirstRowOfNewResultSet() throws SQLException {
+		SimpleResultSet rs = Rows.projects(1, 4);
+		rs.next();
+		return dao.extractRow(rs, Project.class);
+	}
+
+	/**
+	 * Maps projects, materials and steps and attaches the children to their projects, the way a
+	 * full export or aggregate load builds its graph.
+	 */
+	@Benchmark
+	public Map<Integer, Project> buildProjectGraphs() throws SQLException {
+		Map<Integer, Project> graph = new HashMap<>();
+
+		for(Project project : extractAll(projects, Project.class)) {
+			graph.put(project.getProjectId(), project);
+		}
+
+		for(Material material : extractAll(materials, Material.class)) {
+			Project project = graph.get(material.getProjectId());
+
+			if(project != null) {
+				project.getMaterials().add(material);
+			}
+		}
+
+		for(Step step : extractAll(steps, Step.class)) {
+			Project project = graph.get(step.getProjectId());
+
+			if(project != null) {
+				project.getSteps().add(step);
+			}
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Groups consecutive materials by project into LinkedLists, the list type Project uses for its
+	 * children, without the map lookups of buildProjectGraphs.
+	 */
+	@Benchmark
+	public List<List<Material>> groupMaterialsIntoLinkedLists() throws SQLException {
+		List<List<Material>> groups = new ArrayList<>();
+		List<Material> current = null;
+		Integer currentProject = null;
+
+		for(Material material : extractAll(materials, Material.class)) {
+			if(!material.getProjectId().equals(currentProject)) {
+				current = new LinkedList<>();
+				groups.add(current);
+				currentProject = material.getProjectId();
+			}
+			current.add(material);
+		}
+
+		return groups;
+	}
+
+	private <T> List<T> extractAll(SimpleResultSet rs, Class<T> classType) throws SQLException {
+		rs.beforeFirst();
+		List<T> rows = new ArrayList<>(this.rows);
+
+		while(rs.next()) {
+			rows.add(dao.extractRow(rs, classType));
+		}
+
+		return rows;
+	}
+
+}
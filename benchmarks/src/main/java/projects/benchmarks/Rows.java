@@ -0,0 +1,115 @@
+package projects.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.Random;
+
+import org.h2.tools.SimpleResultSet;
+
+/**
+ * Builds in-memory result sets shaped like the project and material tables, with realistic column
+ * widths: names of 20-40 characters and project notes of a few hundred characters.
+ */
+public class Rows {
+
+	private static final String WORDS = "measure cut sand glue clamp drill screw paint stain "
+			+ "varnish level square brace hinge latch plank board frame panel trim ";
+
+	public static SimpleResultSet projects(int rowCount, long seed) {
+		Random random = new Random(seed);
+		SimpleResultSet rs = new SimpleResultSet();
+		rs.setAutoClose(false);
+
+		rs.addColumn("project_id", Types.INTEGER, 10, 0);
+		rs.addColumn("project_name", Types.VARCHAR, 128, 0);
+		rs.addColumn("estimated_hours", Types.DECIMAL, 7, 2);
+		rs.addColumn("actual_hours", Types.DECIMAL, 7, 2);
+		rs.addColumn("difficulty", Types.INTEGER, 10, 0);
+		rs.addColumn("notes", Types.VARCHAR, 65535, 0);
+
+		for(int row = 1; row <= rowCount; row++) {
+			rs.addRow(row, text(random, 20, 40), hours(random), 
+					random.nextInt(4) == 0 ? null : hours(random), 1 + random.nextInt(5),
+					text(random, 100, 600));
+		}
+
+		return rs;
+	}
+
+	public static SimpleResultSet materials(int rowCount, long seed) {
+		Random random = new Random(seed);
+		SimpleResultSet rs = new SimpleResultSet();
+		rs.setAutoClose(false);
+
+		rs.addColumn("material_id", Types.INTEGER, 10, 0);
+		rs.addColumn("project_id", Types.INTEGER, 10, 0);
+		rs.addColumn("material_name", Types.VARCHAR, 128, 0);
+		rs.addColumn("num_required", Types.INTEGER, 10, 0);
+		rs.addColumn("cost", Types.DECIMAL, 7, 2);
+
+		for(int row = 1; row <= rowCount; row++) {
+			rs.addRow(row, 1 + row / 10, text(random, 10, 30), 1 + random.nextInt(20),
+					BigDecimal.valueOf(random.nextInt(100000), 2));
+		}
+
+		return rs;
+	}
+
+	public static SimpleResultSet steps(int rowCount, long seed) {
+		Random random = new Random(seed);
+		SimpleResultSet rs = new SimpleResultSet();
+		rs.setAutoClose(false);
+
+		rs.addColumn("step_id", Types.INTEGER, 10, 0);
+		rs.addColumn("project_id", Types.INTEGER, 10, 0);
+		rs.addColumn("step_text", Types.VARCHAR, 65535, 0);
+		rs.addColumn("step_order", Types.INTEGER, 10, 0);
+
+		for(int row = 1; row <= rowCount; row++) {
+			rs.addRow(row, 1 + row / 10, text(random, 40, 200), 1 + row % 10);
+		}
+
+		return rs;
+	}
+
+	/**
+	 * The rows ReportDao.PROJECT_BATCH_SQL returns: hours and material cost as whole hundredths.
+	 */
+	public static SimpleResultSet projectNumbers(int rowCount, long seed) {
+		Random random = new Random(seed);
+		SimpleResultSet rs = new SimpleResultSet();
+		rs.setAutoClose(false);
+
+		rs.addColumn("project_id", Types.INTEGER, 10, 0);
+		rs.addColumn("difficulty", Types.INTEGER, 10, 0);
+		rs.addColumn("estimated_hundredths", Types.BIGINT, 19, 0);
+		rs.addColumn("actual_hundredths", Types.BIGINT, 19, 0);
+		rs.addColumn("cost_hundredths", Types.BIGINT, 19, 0);
+
+		for(int row = 1; row <= rowCount; row++) {
+			rs.addRow(row, 1 + random.nextInt(5), (long)random.nextInt(20000),
+					random.nextInt(4) == 0 ? null : (long)random.nextInt(20000),
+					(long)random.nextInt(2000000));
+		}
+
+		return rs;
+	}
+
+	static BigDecimal hours(Random random) {
+		return BigDecimal.valueOf(random.nextInt(20000), 2);
+	}
+
+	static String text(Random random, int minLength, int maxLength) {
+		int length = minLength + random.nextInt(maxLength - minLength + 1);
+		StringBuilder text = new StringBuilder(length);
+
+		while(text.length() < length) {
+			int start = random.nextInt(WORDS.length() - 10);
+			text.append(WORDS, start, Math.min(WORDS.length(), start + 10));
+		}
+
+		text.setLength(length);
+		return text.toString();
+	}
+
+}